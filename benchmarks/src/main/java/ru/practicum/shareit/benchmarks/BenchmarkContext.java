@@ -0,0 +1,114 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dal.UserStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Контекст сервера на H2 в профиле bench и генератор данных для бенчмарков.
+ * Каждый запуск поднимает отдельную базу в памяти, схема создается теми же миграциями, что и в приложении.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+    private static final int BATCH_SIZE = 1000;
+    private static final int BOOKERS = 10;
+
+    private final ConfigurableApplicationContext context;
+    private final TransactionTemplate readOnly;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        this.readOnly.setReadOnly(true);
+    }
+
+    // Свойства вида key=value переопределяют настройки профиля, например параметры Hibernate для сравнения
+    public static BenchmarkContext start(String... properties) {
+        return new BenchmarkContext(new SpringApplicationBuilder(ShareItServer.class)
+                .profiles("bench")
+                .properties(properties)
+                .run());
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // В приложении сервисы работают внутри open-in-view сессии, здесь ее заменяет транзакция только для чтения
+    public <T> T inSession(Supplier<T> action) {
+        return readOnly.execute(status -> action.get());
+    }
+
+    /**
+     * Владелец с items вещами и bookingsPerItem бронированиями у каждой. Бронирования вещи идут подряд без пересечений,
+     * половина из них в прошлом, половина в будущем; каждое пятое ожидает подтверждения, каждое пятое отклонено.
+     * Авторы бронирований - BOOKERS пользователей по кругу.
+     */
+    public Dataset generate(int items, int bookingsPerItem) {
+        UserStorage userStorage = bean(UserStorage.class);
+        ItemStorage itemStorage = bean(ItemStorage.class);
+        User owner = userStorage.save(new User(null, "Owner", "owner@bench.ru"));
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookers.add(userStorage.save(new User(null, "Booker " + i, "booker" + i + "@bench.ru")));
+        }
+        List<Item> saved = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            saved.add(itemStorage.save(new Item(null, owner, "Дрель " + i, "Ударная дрель номер " + i, true, null)));
+        }
+
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (Item item : saved) {
+            for (int j = 0; j < bookingsPerItem; j++) {
+                LocalDateTime start = now.plusDays(j - bookingsPerItem / 2).plusHours(1);
+                Status status = switch (j % 5) {
+                    case 3 -> Status.WAITING;
+                    case 4 -> Status.REJECTED;
+                    default -> Status.APPROVED;
+                };
+                rows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(12)), item.getId(),
+                        bookers.get(j % BOOKERS).getId(), status.name()});
+                if (rows.size() == BATCH_SIZE) {
+                    insertBookings(jdbcTemplate, rows);
+                    rows.clear();
+                }
+            }
+        }
+        insertBookings(jdbcTemplate, rows);
+
+        List<Long> itemIds = saved.stream().map(Item::getId).toList();
+        bean(ItemBookingSummaryUpdater.class).refresh(itemIds);
+        return new Dataset(owner.getId(), bookers.getFirst().getId(), itemIds);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private static void insertBookings(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item, booker, status) VALUES (?, ?, ?, ?, ?)",
+                    rows);
+        }
+    }
+
+    public record Dataset(Long ownerId, Long bookerId, List<Long> itemIds) {
+    }
+}
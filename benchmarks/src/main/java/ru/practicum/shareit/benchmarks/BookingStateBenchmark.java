@@ -0,0 +1,69 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Первая страница бронирований автора и владельца для каждого состояния - выбор запроса в getUserBookings
+ * и getOwnerBookings. Страница читается по индексу, поэтому время не должно зависеть от объема истории.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingStateBenchmark {
+    private static final int PAGE_SIZE = 10;
+    private static final int ITEMS = 20;
+
+    // Без списка значений JMH перебирает все состояния перечисления
+    @Param
+    private ru.practicum.shareit.booking.State state;
+
+    @Param({"10", "1000"})
+    private int bookingsPerItem;
+
+    private BenchmarkContext context;
+    private BookingService bookingService;
+    private BenchmarkContext.Dataset dataset;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        dataset = context.generate(ITEMS, bookingsPerItem);
+        bookingService = context.bean(BookingService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> getUserBookings() {
+        return context.inSession(() -> bookingService.getUserBookings(dataset.bookerId(),
+                state, null, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<BookingDto> getOwnerBookings() {
+        return context.inSession(() -> bookingService.getOwnerBookings(dataset.ownerId(),
+                state, null, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dal.UserStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовая запись через репозитории: в одной транзакции сохраняются ROWS вещей и по бронированию на каждую,
+ * вперемешку, как при импорте. Результат - вставленных строк в секунду.
+ * batchSize=1 - id из последовательности, но без пакетной отправки JDBC, по запросу на строку;
+ * batchSize=50 - пакеты, как в application.properties. Прежнее поведение с IDENTITY измеряет IdentityInsertBenchmark.
+ * H2 в памяти не платит за сетевой round trip, поэтому на PostgreSQL разница будет больше.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+    private static final int ROWS = 500;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private BenchmarkContext context;
+    private TransactionTemplate transaction;
+    private ItemStorage itemStorage;
+    private BookingStorage bookingStorage;
+    private User owner;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        transaction = new TransactionTemplate(context.bean(PlatformTransactionManager.class));
+        itemStorage = context.bean(ItemStorage.class);
+        bookingStorage = context.bean(BookingStorage.class);
+        owner = context.bean(UserStorage.class).save(new User(null, "Owner", "owner@bench.ru"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // На каждую вещь приходится бронирование: всего 2 * ROWS вставок
+    @Benchmark
+    @OperationsPerInvocation(2 * ROWS)
+    public List<Booking> insertItemsWithBookings() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return transaction.execute(status -> {
+            List<Booking> bookings = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                Item item = itemStorage.save(new Item(null, owner, "Дрель " + i, "Ударная дрель номер " + i, true, null));
+                bookings.add(bookingStorage.save(new Booking(null, start, start.plusHours(12), item, owner,
+                        Status.WAITING)));
+            }
+            return bookings;
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.benchmarks;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.user.dal.UserStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прежнее поведение массовой записи, до перехода на последовательности: те же таблицы вещей и бронирований
+ * отображены сущностями с GenerationType.IDENTITY. Hibernate выполняет вставку сразу при persist и читает id
+ * обратно, поэтому каждая строка - отдельный запрос, и пакеты JDBC невозможны при любом batch_size.
+ * Нагрузка та же, что в BulkInsertBenchmark, и результаты сравниваются с ним напрямую.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdentityInsertBenchmark {
+    private static final int ROWS = 500;
+
+    private BenchmarkContext context;
+    private TransactionTemplate transaction;
+    private EntityManager entityManager;
+    private User owner;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("spring.jpa.properties.hibernate.jdbc.batch_size=50");
+        transaction = new TransactionTemplate(context.bean(PlatformTransactionManager.class));
+        entityManager = context.bean(EntityManager.class);
+        owner = context.bean(UserStorage.class).save(new User(null, "Owner", "owner@bench.ru"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // На каждую вещь приходится бронирование: всего 2 * ROWS вставок
+    @Benchmark
+    @OperationsPerInvocation(2 * ROWS)
+    public List<IdentityBooking> insertItemsWithBookings() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return transaction.execute(status -> {
+            User booker = entityManager.getReference(User.class, owner.getId());
+            List<IdentityBooking> bookings = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                IdentityItem item = new IdentityItem(booker, "Дрель " + i, "Ударная дрель номер " + i);
+                entityManager.persist(item);
+                IdentityBooking booking = new IdentityBooking(start, start.plusHours(12), item, booker);
+                entityManager.persist(booking);
+                bookings.add(booking);
+            }
+            return bookings;
+        });
+    }
+
+    // Вещь с id от базы, как до перехода на последовательности
+    @Entity
+    @Table(name = "items")
+    public static class IdentityItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @ManyToOne(fetch = FetchType.LAZY, optional = false)
+        @JoinColumn(name = "owner", nullable = false)
+        private User owner;
+
+        @Column(name = "name", nullable = false)
+        private String name;
+
+        @Column(name = "description", nullable = false)
+        private String description;
+
+        @Column(name = "available", nullable = false)
+        private Boolean available;
+
+        protected IdentityItem() {
+        }
+
+        IdentityItem(User owner, String name, String description) {
+            this.owner = owner;
+            this.name = name;
+            this.description = description;
+            this.available = true;
+        }
+    }
+
+    // Бронирование с id от базы, как до перехода на последовательности
+    @Entity
+    @Table(name = "bookings")
+    public static class IdentityBooking {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "start_date", nullable = false)
+        private LocalDateTime start;
+
+        @Column(name = "end_date", nullable = false)
+        private LocalDateTime end;
+
+        @ManyToOne(fetch = FetchType.LAZY, optional = false)
+        @JoinColumn(name = "item", nullable = false)
+        private IdentityItem item;
+
+        @ManyToOne(fetch = FetchType.LAZY, optional = false)
+        @JoinColumn(name = "booker", nullable = false)
+        private User booker;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "status")
+        private Status status;
+
+        protected IdentityBooking() {
+        }
+
+        IdentityBooking(LocalDateTime start, LocalDateTime end, IdentityItem item, User booker) {
+            this.start = start;
+            this.end = end;
+            this.item = item;
+            this.booker = booker;
+            this.status = Status.WAITING;
+        }
+    }
+}
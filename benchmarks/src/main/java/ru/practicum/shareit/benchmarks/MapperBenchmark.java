@@ -0,0 +1,79 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.mapper.CommentMapper;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость мапперов сущностей в DTO на готовых объектах в памяти, без базы.
+ * size - сколько объектов преобразуется за одну операцию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "100"})
+    private int size;
+
+    private final List<Booking> bookings = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+    private final List<Comment> comments = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = new User(1L, "Owner", "owner@bench.ru");
+        User booker = new User(2L, "Booker", "booker@bench.ru");
+        Request request = new Request(1L, "Нужна дрель", booker, now);
+        for (long i = 0; i < size; i++) {
+            Item item = new Item(i, owner, "Дрель " + i, "Ударная дрель номер " + i, true, i % 2 == 0 ? request : null);
+            items.add(item);
+            bookings.add(new Booking(i, now.plusDays(i), now.plusDays(i + 1), item, booker, Status.APPROVED));
+            comments.add(new Comment(i, "Отличная дрель " + i, item, booker, now));
+        }
+    }
+
+    @Benchmark
+    public List<BookingDto> mapToBookingDto() {
+        return bookings.stream().map(BookingMapper::mapToBookingDto).toList();
+    }
+
+    @Benchmark
+    public List<ItemDto> mapToItemDto() {
+        return items.stream().map(ItemMapper::mapToItemDto).toList();
+    }
+
+    @Benchmark
+    public List<CommentDto> mapToCommentDto() {
+        return comments.stream().map(CommentMapper::mapToCommentDto).toList();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Список вещей владельца с последним и следующим бронированиями и комментариями - ItemServiceImpl.getItemsByOwner.
+ * Время должно расти с числом вещей, но не с числом бронирований у каждой из них.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerDashboardBenchmark {
+
+    @Param({"10", "100"})
+    private int items;
+
+    @Param({"10", "1000"})
+    private int bookingsPerItem;
+
+    private BenchmarkContext context;
+    private ItemService itemService;
+    private Long ownerId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        ownerId = context.generate(items, bookingsPerItem).ownerId();
+        itemService = context.bean(ItemService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> getItemsByOwner() {
+        return context.inSession(() -> itemService.getItemsByOwner(ownerId));
+    }
+}
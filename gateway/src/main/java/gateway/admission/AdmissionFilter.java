@@ -0,0 +1,136 @@
+package gateway.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gateway.exception.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Допуск запросов в gateway до контроллеров: частота запросов каждого пользователя ограничена token bucket,
+ * а тяжелые эндпоинты - пределом одновременных запросов. Сверх лимита сразу отвечаем 429 с Retry-After,
+ * не занимая поток ожиданием и не нагружая сервер. Запросы без X-Sharer-User-Id ограничиваются по адресу клиента.
+ */
+@Slf4j
+public class AdmissionFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final RateLimiter rateLimiter;
+    private final Map<String, Bulkhead> bulkheads = new HashMap<>();
+    private final Counter rateLimited;
+    private final Map<String, Counter> bulkheadRejected = new HashMap<>();
+    private final ObjectMapper objectMapper;
+
+    public AdmissionFilter(AdmissionProperties properties, MeterRegistry registry, ObjectMapper objectMapper) {
+        this.rateLimiter = properties.getRequestsPerSecond() > 0
+                ? new RateLimiter(properties.getRequestsPerSecond(), properties.getBurst())
+                : null;
+        this.rateLimited = rejected(registry, "rate-limit", "all");
+        properties.getBulkheads().forEach((path, maxConcurrent) -> {
+            Bulkhead bulkhead = new Bulkhead(maxConcurrent);
+            bulkheads.put(path, bulkhead);
+            bulkheadRejected.put(path, rejected(registry, "bulkhead", path));
+            Gauge.builder("gateway.bulkhead.active", bulkhead, Bulkhead::active)
+                    .description("Одновременные запросы к эндпоинту с пределом")
+                    .tag("endpoint", path)
+                    .register(registry);
+        });
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (rateLimiter != null) {
+            // Без заголовка пользователя (например, GET /bookings/all) ведро общее для адреса клиента;
+            // префикс не дает ему совпасть с ведром пользователя
+            String userId = request.getHeader(USER_HEADER);
+            String key = userId != null ? userId : "addr:" + request.getRemoteAddr();
+            long waitNanos = rateLimiter.tryAcquire(key);
+            if (waitNanos > 0) {
+                rateLimited.increment();
+                log.warn("Клиент {} превысил частоту запросов, {} {}", key, request.getMethod(), request.getRequestURI());
+                reject(response, "Слишком много запросов, повторите позже", waitNanos);
+                return;
+            }
+        }
+
+        String path = request.getRequestURI();
+        Bulkhead bulkhead = bulkheads.get(path);
+        if (bulkhead == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejected.get(path).increment();
+            log.warn("Превышен предел одновременных запросов к {}", path);
+            reject(response, "Эндпоинт перегружен, повторите позже", TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            // Потоковый ответ дописывается после выхода из фильтра - место освобождается по его завершении
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(bulkhead));
+            }
+        } finally {
+            if (!async) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String message, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("TooManyRequests", message));
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason, String endpoint) {
+        return Counter.builder("gateway.admission.rejected")
+                .description("Запросы, отклоненные с 429")
+                .tag("reason", reason)
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    private record ReleaseOnComplete(Bulkhead bulkhead) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            bulkhead.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package gateway.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ограничения допуска запросов в gateway (shareit-gateway.admission.*).
+ * Отказы видны в метрике gateway.admission.rejected, занятость пределов - в gateway.bulkhead.active.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.admission")
+public class AdmissionProperties {
+    // Средняя частота запросов одного пользователя (по X-Sharer-User-Id); 0 - без ограничения
+    private int requestsPerSecond = 50;
+    // Сколько запросов подряд пользователь может сделать сверх средней частоты
+    private int burst = 100;
+    // Предел одновременных запросов по пути эндпоинта, например bulkheads[/items/search]=32
+    private Map<String, Integer> bulkheads = new HashMap<>();
+}
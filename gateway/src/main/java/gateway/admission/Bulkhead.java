@@ -0,0 +1,31 @@
+package gateway.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Предел одновременных запросов к одному эндпоинту на атомарном счетчике.
+ */
+class Bulkhead {
+    private final int maxConcurrent;
+    private final AtomicInteger active = new AtomicInteger();
+
+    Bulkhead(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    boolean tryAcquire() {
+        if (active.incrementAndGet() > maxConcurrent) {
+            active.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void release() {
+        active.decrementAndGet();
+    }
+
+    int active() {
+        return active.get();
+    }
+}
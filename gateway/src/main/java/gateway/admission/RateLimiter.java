@@ -0,0 +1,51 @@
+package gateway.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket по ключу в виде GCRA: состояние ведра - одно число, момент, к которому оно опустеет
+ * при текущем темпе. Запрос сдвигает этот момент на интервал между токенами, если он не уходит
+ * дальше, чем на burst интервалов вперед. Обновление - CAS без блокировок.
+ */
+class RateLimiter {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    RateLimiter(int requestsPerSecond, int burst) {
+        this(requestsPerSecond, burst, System::nanoTime);
+    }
+
+    RateLimiter(int requestsPerSecond, int burst, LongSupplier nanoClock) {
+        this.intervalNanos = Duration.ofSeconds(1).toNanos() / requestsPerSecond;
+        this.burstNanos = intervalNanos * Math.max(burst, 1);
+        this.nanoClock = nanoClock;
+        // Ведро, не тронутое дольше, чем нужно на его заполнение, снова полное - его можно забыть
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(burstNanos).plusSeconds(1))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    // 0 - запрос допущен, иначе сколько наносекунд ждать до следующего токена
+    long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong emptyAt = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = emptyAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return next - now - burstNanos;
+            }
+            if (emptyAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package gateway.client;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Set;
 
 public abstract class BaseClient {
+    // Заголовки соединения между gateway и сервером, клиенту они не передаются
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            "keep-alive");
+
     protected final RestTemplate restTemplate;
     protected final String serverUrl;
 
@@ -63,6 +75,39 @@ public abstract class BaseClient {
         }
     }
 
+    // Ответ сервера передается клиенту как есть: статус, заголовки и байты тела копируются в ответ gateway
+    // без разбора в DTO и повторной сериализации. Ошибки сервера по-прежнему бросаются обработчиком RestTemplate
+    protected void proxy(String url, Long userId, HttpServletResponse response) {
+        proxy(url, HttpMethod.GET, userId, null, response);
+    }
+
+    // То же с телом запроса: байты тела клиента передаются серверу потоком по мере чтения, не собираясь в памяти gateway
+    protected void proxy(String url, HttpMethod method, Long userId, HttpServletRequest request,
+                         HttpServletResponse response) {
+        restTemplate.execute(url, method,
+                serverRequest -> {
+                    serverRequest.getHeaders().addAll(createHeaders(userId));
+                    if (request == null) {
+                        return;
+                    }
+                    serverRequest.getHeaders().setContentType(MediaType.parseMediaType(request.getContentType()));
+                    if (serverRequest instanceof StreamingHttpOutputMessage streaming) {
+                        streaming.setBody(body -> StreamUtils.copy(request.getInputStream(), body));
+                    } else {
+                        StreamUtils.copy(request.getInputStream(), serverRequest.getBody());
+                    }
+                },
+                serverResponse -> {
+                    response.setStatus(serverResponse.getStatusCode().value());
+                    serverResponse.getHeaders().forEach((name, values) -> {
+                        if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                            values.forEach(value -> response.addHeader(name, value));
+                        }
+                    });
+                    return StreamUtils.copy(serverResponse.getBody(), response.getOutputStream());
+                });
+    }
+
     private HttpHeaders createHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         if (userId != null) {
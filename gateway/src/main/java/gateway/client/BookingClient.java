@@ -1,16 +1,21 @@
 package gateway.client;
 
 import gateway.controller.State;
+import gateway.dto.BookingDecisionDto;
 import gateway.dto.BookingDto;
 import gateway.dto.RequestBookingDto;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.OutputStream;
 import java.util.List;
 
 @Slf4j
@@ -38,18 +43,35 @@ public class BookingClient extends BaseClient {
         return sendRequest(url, HttpMethod.PATCH, null, BookingDto.class, ownerId);
     }
 
-    public ResponseEntity<List<BookingDto>> getUserBookings(Long userId, State state) {
-        String url = serverUrl + BOOKING_PREFIX + "?state=" + state;
-        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<BookingDto>>() {}, userId);
+    public ResponseEntity<List<BookingDto>> approveBookings(List<BookingDecisionDto> decisions, Long ownerId) {
+        String url = serverUrl + BOOKING_PREFIX;
+        return sendRequest(url, HttpMethod.PATCH, decisions, new ParameterizedTypeReference<List<BookingDto>>() {}, ownerId);
+    }
+
+    public void getUserBookings(Long userId, State state, Long after, Integer size, HttpServletResponse response) {
+        String url = serverUrl + BOOKING_PREFIX + "?state=" + state + pageParams(after, size);
+        proxy(url, userId, response);
+    }
+
+    public void getOwnerBookings(Long ownerId, State state, Long after, Integer size, HttpServletResponse response) {
+        String url = serverUrl + BOOKING_PREFIX + "/owner?state=" + state + pageParams(after, size);
+        proxy(url, ownerId, response);
     }
 
-    public ResponseEntity<List<BookingDto>> getOwnerBookings(Long ownerId, State state) {
-        String url = serverUrl + BOOKING_PREFIX + "/owner?state=" + state;
-        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<BookingDto>>() {}, ownerId);
+    public void getAllBookings(HttpServletResponse response) {
+        String url = serverUrl + BOOKING_PREFIX + "/all";
+        proxy(url, null, response);
     }
 
-    public ResponseEntity<List<BookingDto>> getAllBookings() {
+    // NDJSON-выгрузка копируется из ответа сервера в поток клиента как есть, без разбора и буферизации всего тела
+    public void streamAllBookings(OutputStream outputStream) {
         String url = serverUrl + BOOKING_PREFIX + "/all";
-        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<BookingDto>>() {}, null);
+        restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                response -> StreamUtils.copy(response.getBody(), outputStream));
+    }
+
+    private String pageParams(Long after, Integer size) {
+        return (after != null ? "&after=" + after : "") + (size != null ? "&size=" + size : "");
     }
 }
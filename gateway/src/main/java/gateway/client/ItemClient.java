@@ -1,9 +1,12 @@
 package gateway.client;
 
 import gateway.dto.CommentDto;
+import gateway.dto.FreeIntervalDto;
 import gateway.dto.ItemBodyDto;
 import gateway.dto.ItemDto;
 import gateway.dto.RequestCommentDto;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
@@ -12,7 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Collection;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -30,6 +33,11 @@ public class ItemClient extends BaseClient {
         return sendRequest(url, HttpMethod.POST, itemBodyDto, ItemDto.class, userId);
     }
 
+    public void addAll(long userId, HttpServletRequest request, HttpServletResponse response) {
+        String url = serverUrl + ITEM_PREFIX + "/bulk";
+        proxy(url, HttpMethod.POST, userId, request, response);
+    }
+
     public ResponseEntity<ItemDto> update(long itemsId, ItemBodyDto itemBodyDto, Long userId) {
         String url = serverUrl + ITEM_PREFIX + "/" + itemsId;
         return sendRequest(url, HttpMethod.PATCH, itemBodyDto, ItemDto.class, userId);
@@ -40,14 +48,31 @@ public class ItemClient extends BaseClient {
         return sendRequest(url, HttpMethod.GET, null, ItemDto.class, null);
     }
 
-    public ResponseEntity<Collection<ItemDto>> getItemsByOwner(Long userId) {
+    public void getItemsByOwner(Long userId, HttpServletResponse response) {
         String url = serverUrl + ITEM_PREFIX + "?ownerId=" + userId;
-        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<Collection<ItemDto>>() {}, userId);
+        proxy(url, userId, response);
+    }
+
+    public void search(String text, LocalDateTime start, LocalDateTime end, Integer from, Integer size,
+                       Long userId, HttpServletResponse response) {
+        String url = serverUrl + ITEM_PREFIX + "/search?text=" + text + "&from=" + from + "&size=" + size;
+        if (start != null) {
+            url += "&start=" + start;
+        }
+        if (end != null) {
+            url += "&end=" + end;
+        }
+        proxy(url, userId, response);
+    }
+
+    public ResponseEntity<List<String>> suggest(String prefix, Integer size) {
+        String url = serverUrl + ITEM_PREFIX + "/suggest?prefix=" + prefix + "&size=" + size;
+        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<String>>() {});
     }
 
-    public ResponseEntity<List<ItemDto>> search(String text, Long userId) {
-        String url = serverUrl + ITEM_PREFIX + "/search?text=" + text;
-        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<ItemDto>>() {}, userId);
+    public ResponseEntity<List<FreeIntervalDto>> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        String url = serverUrl + ITEM_PREFIX + "/" + itemId + "/availability?from=" + from + "&to=" + to;
+        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<FreeIntervalDto>>() {});
     }
 
     public ResponseEntity<CommentDto> addComment(Long itemId, RequestCommentDto requestCommentDto, Long userId) {
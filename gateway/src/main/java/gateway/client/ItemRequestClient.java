@@ -2,16 +2,14 @@ package gateway.client;
 
 import gateway.dto.RequestDto;
 import gateway.dto.RequestItemDto;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.List;
-
 @Slf4j
 @Service
 public class ItemRequestClient extends BaseClient {
@@ -28,16 +26,16 @@ public class ItemRequestClient extends BaseClient {
         return sendRequest(url, HttpMethod.POST, requestItemDto, RequestDto.class, userId);
     }
 
-    public ResponseEntity<List<RequestDto>> getUserItemRequests(Long userId) {
+    public void getUserItemRequests(Long userId, HttpServletResponse response) {
         String url = serverUrl + ITEM_REQUEST_PREFIX;
         log.info("Запрос на получение запросов пользователя с ID {}", userId);
-        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<RequestDto>>() {}, userId);
+        proxy(url, userId, response);
     }
 
-    public ResponseEntity<List<RequestDto>> getOtherUsersItemRequests(Long userId) {
+    public void getOtherUsersItemRequests(Long userId, HttpServletResponse response) {
         String url = serverUrl + ITEM_REQUEST_PREFIX + "/all";
         log.info("Запрос на получение запросов других пользователей для пользователя с ID {}", userId);
-        return sendRequest(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<RequestDto>>() {}, userId);
+        proxy(url, userId, response);
     }
 
     public ResponseEntity<RequestDto> getItemRequestById(Long userId, Long requestId) {
@@ -1,19 +1,119 @@
 package gateway.config;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.function.ToIntFunction;
+
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class AppConfig {
+    public static final String SERVER_CIRCUIT_BREAKER = "shareit-server";
+
+    @Bean
+    public PoolingHttpClientConnectionManager connectionManager(HttpClientProperties properties) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .setValidateAfterInactivity(TimeValue.of(properties.getValidateAfterInactivity()))
+                        .build())
+                .build();
+    }
 
     @Bean
-    public RestTemplate restTemplate() {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
+    public EtagCacheHandler etagCacheHandler(HttpClientProperties properties) {
+        return new EtagCacheHandler(properties.getResponseCache().toBytes(),
+                (int) properties.getResponseCacheMaxEntry().toBytes());
+    }
+
+    @Bean
+    public SingleFlightHandler singleFlightHandler(HttpClientProperties properties, MeterRegistry registry) {
+        return new SingleFlightHandler(properties.getSingleFlightMaxBody().toBytes(), registry);
+    }
+
+    @Bean
+    public CircuitBreakerHandler circuitBreakerHandler(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return new CircuitBreakerHandler(circuitBreakerRegistry.circuitBreaker(SERVER_CIRCUIT_BREAKER));
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                          CircuitBreakerHandler circuitBreakerHandler,
+                                          EtagCacheHandler etagCacheHandler,
+                                          SingleFlightHandler singleFlightHandler,
+                                          HttpClientProperties properties) {
+        TimeValue keepAlive = TimeValue.of(properties.getKeepAlive());
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .build())
+                // Соединение живет не дольше keepAlive, а если сервер в заголовке Keep-Alive просит меньше - сколько просит
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return requested.toMilliseconds() < keepAlive.toMilliseconds() ? requested : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                // Добавленные далее обработчики встают перед ним, так что он ближе всех к серверу
+                // и считает только настоящие обращения, а не ответы из кэша и совмещенные запросы
+                .addExecInterceptorFirst("circuit-breaker", circuitBreakerHandler);
+        if (properties.getResponseCache().toBytes() > 0) {
+            builder.addExecInterceptorFirst("etag-cache", etagCacheHandler);
+        }
+        // Совмещение стоит перед кэшем, чтобы одновременные запросы ревалидировались одним обращением
+        if (properties.getSingleFlightMaxBody().toBytes() > 0) {
+            builder.addExecInterceptorFirst("single-flight", singleFlightHandler);
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
         HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
         return new RestTemplate(factory);
     }
-}
\ No newline at end of file
+
+    // Заполненность пула: занятые, свободные и ожидающие соединения, а также его предел
+    @Bean
+    public MeterBinder connectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return registry -> {
+            poolGauge(registry, connectionManager, "leased", PoolStats::getLeased);
+            poolGauge(registry, connectionManager, "available", PoolStats::getAvailable);
+            poolGauge(registry, connectionManager, "pending", PoolStats::getPending);
+            poolGauge(registry, connectionManager, "max", PoolStats::getMax);
+        };
+    }
+
+    private static void poolGauge(MeterRegistry registry,
+                                  PoolingHttpClientConnectionManager connectionManager,
+                                  String state, ToIntFunction<PoolStats> value) {
+        Gauge.builder("httpclient.pool.connections", connectionManager,
+                        manager -> value.applyAsInt(manager.getTotalStats()))
+                .tag("state", state)
+                .description("Соединения пула gateway к серверу")
+                .register(registry);
+    }
+}
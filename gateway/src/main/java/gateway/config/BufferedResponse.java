@@ -0,0 +1,60 @@
+package gateway.config;
+
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Ответ сервера, целиком прочитанный в память, чтобы отдать его несколько раз.
+ */
+record BufferedResponse(int code, Header[] headers, ContentType contentType, byte[] body) {
+    private static final List<String> KEY_HEADERS = List.of("X-Sharer-User-Id",
+            HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE);
+
+    // Читает тело и закрывает исходный ответ, освобождая соединение
+    static BufferedResponse read(ClassicHttpResponse response) throws IOException {
+        try (response) {
+            HttpEntity entity = response.getEntity();
+            return new BufferedResponse(response.getCode(), response.getHeaders(),
+                    entity != null ? ContentType.parseLenient(entity.getContentType()) : null,
+                    entity != null ? EntityUtils.toByteArray(entity) : new byte[0]);
+        }
+    }
+
+    // Одинаковые GET-запросы: тот же адрес, тот же пользователь и те же заголовки выбора представления -
+    // по Accept одна и та же выгрузка бронирований отдается JSON-массивом или NDJSON
+    static String key(ClassicHttpRequest request, ExecChain.Scope scope) {
+        StringBuilder key = new StringBuilder(scope.route.getTargetHost().toURI()).append(request.getRequestUri());
+        for (String name : KEY_HEADERS) {
+            Header header = request.getFirstHeader(name);
+            key.append('#').append(header != null ? header.getValue() : "");
+        }
+        return key.toString();
+    }
+
+    String header(String name) {
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    ClassicHttpResponse toResponse() {
+        BasicClassicHttpResponse response = new BasicClassicHttpResponse(code);
+        response.setHeaders(headers);
+        response.setEntity(new ByteArrayEntity(body, contentType));
+        return response;
+    }
+}
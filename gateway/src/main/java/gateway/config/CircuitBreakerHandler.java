@@ -0,0 +1,65 @@
+package gateway.config;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker на вызовах сервера. Ошибкой считаются сбой соединения и ответ 5xx, медленным - ответ,
+ * заголовки которого пришли позже порога; пороги и окно задаются в resilience4j.circuitbreaker.instances.shareit-server.*.
+ * Пока цепь разомкнута, запрос сразу завершается IOException: RestTemplate превращает его в ResourceAccessException,
+ * и gateway отвечает 503, не занимая поток и соединение ожиданием сервера.
+ * Запрос, тело которого передается потоком от клиента (массовая загрузка вещей), длится столько, сколько клиент
+ * его отправляет, поэтому его длительность в медленные вызовы не засчитывается: большая или медленная загрузка
+ * не должна размыкать цепь для всех. Ошибки таких запросов учитываются как обычно.
+ */
+public class CircuitBreakerHandler implements ExecChainHandler {
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerHandler(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new IOException("Сервер недоступен, запросы к нему временно не отправляются",
+                    CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+        long start = streamsBody(request) ? -1 : circuitBreaker.getCurrentTimestamp();
+        ClassicHttpResponse response;
+        try {
+            response = chain.proceed(request, scope);
+        } catch (IOException | HttpException | RuntimeException e) {
+            circuitBreaker.onError(elapsed(start), circuitBreaker.getTimestampUnit(), e);
+            throw e;
+        }
+        if (response.getCode() >= 500) {
+            circuitBreaker.onError(elapsed(start), circuitBreaker.getTimestampUnit(),
+                    new IOException("Сервер ответил " + response.getCode()));
+        } else {
+            circuitBreaker.onSuccess(elapsed(start), circuitBreaker.getTimestampUnit());
+        }
+        return response;
+    }
+
+    // Тела DTO сериализуются заранее и повторяемы, а тело, копируемое из запроса клиента, можно прочитать только раз
+    private static boolean streamsBody(ClassicHttpRequest request) {
+        HttpEntity entity = request.getEntity();
+        return entity != null && !entity.isRepeatable();
+    }
+
+    // Для запроса с потоковым телом время не замерялось, и вызов учитывается с нулевой длительностью
+    private long elapsed(long start) {
+        return start < 0 ? 0 : circuitBreaker.getCurrentTimestamp() - start;
+    }
+}
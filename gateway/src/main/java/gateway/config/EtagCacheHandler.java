@@ -0,0 +1,110 @@
+package gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.regex.Pattern;
+
+/**
+ * Кэш ответов сервера на GET-запросы с ревалидацией по ETag. Ответ с ETag запоминается по адресу запроса
+ * и X-Sharer-User-Id; повторный запрос уходит на сервер с If-None-Match, и на 304 вместо тела
+ * отдается сохраненная копия. Объем кэша ограничен суммарным размером тел ответов.
+ * Кэшируются только отдельные вещи, пользователи и запросы: списки, пакетные и потоковые ответы
+ * проходят мимо, а ответ больше maxEntryBytes отдается потоком без копии в памяти.
+ */
+public class EtagCacheHandler implements ExecChainHandler, MeterBinder {
+    private static final Pattern CACHEABLE_PATH = Pattern.compile("/(items|users|requests)/\\d+");
+
+    private final Cache<String, BufferedResponse> cache;
+    private final int maxEntryBytes;
+
+    public EtagCacheHandler(long maxBytes, int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, BufferedResponse response) -> response.body().length)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        if (!Method.GET.isSame(request.getMethod()) || !isCacheable(request)) {
+            return chain.proceed(request, scope);
+        }
+        String key = BufferedResponse.key(request, scope);
+        BufferedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, cached.header(HttpHeaders.ETAG));
+        }
+
+        ClassicHttpResponse response = chain.proceed(request, scope);
+        if (cached != null && response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+            try (response) {
+                EntityUtils.consume(response.getEntity());
+            }
+            return cached.toResponse();
+        }
+        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+        if (response.getCode() != HttpStatus.SC_OK || etag == null || response.getEntity() == null) {
+            // Ресурс удален или больше не отдает ETag - старая копия не должна всплыть при следующем 304
+            cache.invalidate(key);
+            return response;
+        }
+
+        HttpEntity entity = response.getEntity();
+        if (entity.getContentLength() > maxEntryBytes) {
+            cache.invalidate(key);
+            return response;
+        }
+        // Длина может быть неизвестна: читаем не больше лимита и на переполнении отдаем остаток потоком
+        InputStream content = entity.getContent();
+        byte[] head = content.readNBytes(maxEntryBytes + 1);
+        if (head.length > maxEntryBytes) {
+            cache.invalidate(key);
+            response.setEntity(new InputStreamEntity(
+                    new SequenceInputStream(new ByteArrayInputStream(head), content),
+                    entity.getContentLength(), ContentType.parseLenient(entity.getContentType())));
+            return response;
+        }
+        // Тело прочитано до конца, закрытие освобождает соединение
+        content.close();
+        response.close();
+        BufferedResponse fresh = new BufferedResponse(response.getCode(), response.getHeaders(),
+                ContentType.parseLenient(entity.getContentType()), head);
+        cache.put(key, fresh);
+        return fresh.toResponse();
+    }
+
+    private static boolean isCacheable(ClassicHttpRequest request) {
+        String uri = request.getRequestUri();
+        int query = uri.indexOf('?');
+        return CACHEABLE_PATH.matcher(query < 0 ? uri : uri.substring(0, query)).matches();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "serverResponses");
+    }
+}
@@ -0,0 +1,38 @@
+package gateway.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки HTTP-клиента gateway к серверу (shareit-server.http-client.*): пул соединений и кэш ответов.
+ * Размер пула подбирается по метрикам httpclient.pool.*: если pending часто больше нуля, соединений не хватает.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class HttpClientProperties {
+    // Все запросы идут на один сервер, поэтому лимит на маршрут по умолчанию равен общему
+    private int maxTotal = 200;
+    private int maxPerRoute = 200;
+    // Сколько ждать свободного соединения из пула
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    // Максимальная пауза между пакетами ответа; потоковая выгрузка укладывается в нее, пока сервер пишет строки
+    private Duration responseTimeout = Duration.ofSeconds(30);
+    // Сколько держать соединение открытым, если сервер не прислал Keep-Alive
+    private Duration keepAlive = Duration.ofSeconds(30);
+    // Соединения, простаивающие дольше, закрываются фоновым потоком
+    private Duration idleEviction = Duration.ofMinutes(1);
+    // Простоявшее дольше соединение проверяется перед повторным использованием
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    // Суммарный объем тел ответов в кэше с ревалидацией по ETag; 0 - кэш выключен
+    private DataSize responseCache = DataSize.ofMegabytes(32);
+    // Ответ больше этого размера не кэшируется и отдается клиенту потоком
+    private DataSize responseCacheMaxEntry = DataSize.ofKilobytes(256);
+    // Ответы не больше этого размера копируются всем одновременным одинаковым GET; 0 - совмещение выключено
+    private DataSize singleFlightMaxBody = DataSize.ofMegabytes(1);
+}
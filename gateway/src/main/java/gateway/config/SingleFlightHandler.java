@@ -0,0 +1,93 @@
+package gateway.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.Method;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Совмещение одинаковых GET-запросов, идущих к серверу одновременно. Первый запрос уходит на сервер,
+ * остальные ждут его ответ и получают копию. Ответ без Content-Length или больше maxBodySize не копируется:
+ * потоковые выгрузки не буферизуются, а ожидавшие запросы идут на сервер сами.
+ * Доля совмещенных запросов - gateway.singleflight.requests{result=coalesced} к сумме обоих счетчиков.
+ */
+public class SingleFlightHandler implements ExecChainHandler {
+    private final ConcurrentMap<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long maxBodySize;
+    private final Counter upstream;
+    private final Counter coalesced;
+
+    public SingleFlightHandler(long maxBodySize, MeterRegistry registry) {
+        this.maxBodySize = maxBodySize;
+        this.upstream = requests(registry, "upstream");
+        this.coalesced = requests(registry, "coalesced");
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        if (!Method.GET.isSame(request.getMethod())) {
+            return chain.proceed(request, scope);
+        }
+        String key = BufferedResponse.key(request, scope);
+        CompletableFuture<BufferedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            BufferedResponse shared = await(leader);
+            if (shared != null) {
+                coalesced.increment();
+                return shared.toResponse();
+            }
+            upstream.increment();
+            return chain.proceed(request, scope);
+        }
+
+        upstream.increment();
+        try {
+            ClassicHttpResponse response = chain.proceed(request, scope);
+            HttpEntity entity = response.getEntity();
+            if (entity != null && (entity.getContentLength() < 0 || entity.getContentLength() > maxBodySize)) {
+                flight.complete(null);
+                return response;
+            }
+            BufferedResponse buffered = BufferedResponse.read(response);
+            flight.complete(buffered);
+            return buffered.toResponse();
+        } catch (IOException | HttpException | RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static BufferedResponse await(CompletableFuture<BufferedResponse> leader) throws IOException {
+        try {
+            return leader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Прервано ожидание совмещенного запроса");
+        } catch (ExecutionException e) {
+            throw new IOException("Совмещенный запрос к серверу завершился ошибкой", e.getCause());
+        }
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder("gateway.singleflight.requests")
+                .description("GET-запросы к серверу: отправленные и получившие ответ чужого запроса")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -1,13 +1,20 @@
 package gateway.controller;
 
 import gateway.client.BookingClient;
+import gateway.dto.BookingDecisionDto;
 import gateway.dto.BookingDto;
 import gateway.dto.RequestBookingDto;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,6 +22,7 @@ import java.util.List;
 @RequiredArgsConstructor
 @RestController
 @RequestMapping(path = "/bookings")
+@Validated
 public class BookingController {
     private final BookingClient bookingClient;
 
@@ -41,23 +49,46 @@ public class BookingController {
         return bookingClient.approveBooking(bookingId, approved, ownerId);
     }
 
+    // Пакет решений владельца проходит на сервере целиком или никак, поэтому его размер ограничен
+    @PatchMapping
+    public ResponseEntity<List<BookingDto>> approveBookings(@RequestBody @NotEmpty @Size(max = 100)
+                                                            List<@Valid BookingDecisionDto> decisions,
+                                                            @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        log.info("Запрос на пакетное одобрение {} бронирований для владельца с ID {}", decisions.size(), ownerId);
+        return bookingClient.approveBookings(decisions, ownerId);
+    }
+
     @GetMapping
-    public ResponseEntity<List<BookingDto>> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                            @RequestParam(defaultValue = "ALL") State state) {
-        log.info("Запрос на получение бронирований для пользователя с ID {} в состоянии {}", userId, state);
-        return bookingClient.getUserBookings(userId, state);
+    public void getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                @RequestParam(defaultValue = "ALL") State state,
+                                @RequestParam(required = false) Long after,
+                                @RequestParam(required = false) @Positive Integer size,
+                                HttpServletResponse response) {
+        log.info("Запрос на получение бронирований для пользователя с ID {} в состоянии {}, после {}, размер {}", userId, state, after, size);
+        bookingClient.getUserBookings(userId, state, after, size, response);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<List<BookingDto>> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                             @RequestParam(defaultValue = "ALL") State state) {
-        log.info("Запрос на получение бронирований для владельца с ID {} в состоянии {}", ownerId, state);
-        return bookingClient.getOwnerBookings(ownerId, state);
+    public void getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                 @RequestParam(defaultValue = "ALL") State state,
+                                 @RequestParam(required = false) Long after,
+                                 @RequestParam(required = false) @Positive Integer size,
+                                 HttpServletResponse response) {
+        log.info("Запрос на получение бронирований для владельца с ID {} в состоянии {}, после {}, размер {}", ownerId, state, after, size);
+        bookingClient.getOwnerBookings(ownerId, state, after, size, response);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<BookingDto>> getAllBookings() {
+    public void getAllBookings(HttpServletResponse response) {
         log.info("Запрос на получение всех бронирований");
-        return bookingClient.getAllBookings();
+        bookingClient.getAllBookings(response);
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBookings() {
+        log.info("Запрос на потоковую выгрузку всех бронирований");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingClient::streamAllBookings);
     }
-}
\ No newline at end of file
+}
@@ -3,18 +3,25 @@ package gateway.controller;
 import gateway.annotation.Marker;
 import gateway.client.ItemClient;
 import gateway.dto.CommentDto;
+import gateway.dto.FreeIntervalDto;
 import gateway.dto.ItemDto;
 import gateway.dto.RequestCommentDto;
 import gateway.dto.ItemBodyDto;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 
-import java.util.Collection;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -34,6 +41,16 @@ public class ItemController {
         return itemClient.add(itemBodyDto, userId);
     }
 
+    // Тело (JSON-массив или NDJSON) не разбирается в gateway, а потоком уходит на сервер: сервер читает его
+    // по элементу, проверяет каждый по правилам ItemBodyDto при создании и отвечает результатом по каждому элементу
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void addAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                       HttpServletRequest request,
+                       HttpServletResponse response) {
+        log.info("Запрос на массовое добавление элементов для пользователя с ID {}", userId);
+        itemClient.addAll(userId, request, response);
+    }
+
     @PatchMapping("/{itemsId}")
     public ResponseEntity<ItemDto> update(@PathVariable long itemsId,
                                           @Valid @RequestBody ItemBodyDto itemBodyDto,
@@ -49,16 +66,38 @@ public class ItemController {
     }
 
     @GetMapping
-    public ResponseEntity<Collection<ItemDto>> getItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public void getItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId, HttpServletResponse response) {
         log.info("Запрос на получение элементов для владельца с ID {}", userId);
-        return itemClient.getItemsByOwner(userId);
+        itemClient.getItemsByOwner(userId, response);
     }
 
+    // Период start-end необязателен: с ним сервер оставит в выдаче только вещи, свободные на весь период
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> search(@RequestParam String text,
-                                                @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Запрос на поиск элементов по тексту '{}' для пользователя с ID {}", text, userId);
-        return itemClient.search(text, userId);
+    public void search(@RequestParam String text,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                       @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                       @RequestParam(defaultValue = "10") @Positive Integer size,
+                       @RequestHeader("X-Sharer-User-Id") Long userId,
+                       HttpServletResponse response) {
+        log.info("Запрос на поиск элементов по тексту '{}' на период {} - {} для пользователя с ID {}, с {}, размер {}",
+                text, start, end, userId, from, size);
+        itemClient.search(text, start, end, from, size, userId, response);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(@RequestParam String prefix,
+                                                @RequestParam(defaultValue = "10") @Positive @Max(20) Integer size) {
+        log.info("Запрос подсказок для префикса '{}', размер {}", prefix, size);
+        return itemClient.suggest(prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<List<FreeIntervalDto>> getAvailability(@PathVariable Long itemId,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Запрос свободных окон элемента с ID {} с {} по {}", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to);
     }
 
     @PostMapping("{itemId}/comment")
@@ -4,6 +4,7 @@ import gateway.annotation.Marker;
 import gateway.client.ItemRequestClient;
 import gateway.dto.RequestItemDto;
 import gateway.dto.RequestDto;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,8 +12,6 @@ import org.springframework.http.*;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping(path = "/requests")
@@ -31,13 +30,13 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<List<RequestDto>> getUserItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestClient.getUserItemRequests(userId);
+    public void getUserItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId, HttpServletResponse response) {
+        itemRequestClient.getUserItemRequests(userId, response);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<RequestDto>> getOtherUsersItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestClient.getOtherUsersItemRequests(userId);
+    public void getOtherUsersItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId, HttpServletResponse response) {
+        itemRequestClient.getOtherUsersItemRequests(userId, response);
     }
 
     @GetMapping("/{requestId}")
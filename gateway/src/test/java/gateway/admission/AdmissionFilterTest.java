@@ -0,0 +1,107 @@
+package gateway.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionFilterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void userOverRateShouldGetTooManyRequestsWithRetryAfter() throws Exception {
+        AdmissionFilter filter = filter(1, 2, Map.of());
+
+        assertThat(perform(filter, get("/items/1", "1")).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, get("/items/1", "1")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = perform(filter, get("/items/1", "1"));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("\"error\":\"TooManyRequests\"");
+        assertThat(perform(filter, get("/items/1", "2")).getStatus()).isEqualTo(200);
+        assertThat(registry.get("gateway.admission.rejected").tag("reason", "rate-limit").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void requestsWithoutUserShouldBeRateLimitedByRemoteAddress() throws Exception {
+        AdmissionFilter filter = filter(1, 1, Map.of());
+
+        assertThat(perform(filter, get("/bookings/all", null)).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, get("/bookings/all", null)).getStatus()).isEqualTo(429);
+
+        MockHttpServletRequest otherClient = get("/bookings/all", null);
+        otherClient.setRemoteAddr("10.0.0.2");
+        assertThat(perform(filter, otherClient).getStatus()).isEqualTo(200);
+        // Ведро адреса не расходует лимит пользователя с того же адреса
+        assertThat(perform(filter, get("/bookings/all", "1")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void bulkheadShouldRejectRequestsOverLimitWhileSlotIsBusy() throws Exception {
+        AdmissionFilter filter = filter(0, 0, Map.of("/items/search", 1));
+        MockHttpServletResponse[] concurrent = new MockHttpServletResponse[1];
+
+        // Пока первый запрос внутри эндпоинта, приходит второй
+        FilterChain busyEndpoint = (request, response) ->
+                concurrent[0] = perform(filter, get("/items/search", "2"));
+        filter.doFilter(get("/items/search", "1"), new MockHttpServletResponse(), busyEndpoint);
+
+        assertThat(concurrent[0].getStatus()).isEqualTo(429);
+        assertThat(perform(filter, get("/items/search", "2")).getStatus()).isEqualTo(200);
+        assertThat(registry.get("gateway.admission.rejected").tag("endpoint", "/items/search").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("gateway.bulkhead.active").tag("endpoint", "/items/search").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void asyncResponseShouldHoldBulkheadUntilCompleted() throws Exception {
+        AdmissionFilter filter = filter(0, 0, Map.of("/bookings/all", 1));
+        MockHttpServletRequest streaming = get("/bookings/all", null);
+        streaming.setAsyncSupported(true);
+
+        filter.doFilter(streaming, new MockHttpServletResponse(),
+                (request, response) -> request.startAsync());
+
+        assertThat(perform(filter, get("/bookings/all", null)).getStatus()).isEqualTo(429);
+        streaming.getAsyncContext().complete();
+        assertThat(perform(filter, get("/bookings/all", null)).getStatus()).isEqualTo(200);
+    }
+
+    private AdmissionFilter filter(int requestsPerSecond, int burst, Map<String, Integer> bulkheads) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRequestsPerSecond(requestsPerSecond);
+        properties.setBurst(burst);
+        properties.setBulkheads(bulkheads);
+        return new AdmissionFilter(properties, registry, objectMapper);
+    }
+
+    private static MockHttpServletResponse perform(AdmissionFilter filter, MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String uri, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,58 @@
+package gateway.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final RateLimiter rateLimiter = new RateLimiter(10, 3, now::get);
+
+    @Test
+    void burstShouldBeAdmittedAndNextRequestToldToWaitOneInterval() {
+        assertThat(rateLimiter.tryAcquire("1")).isZero();
+        assertThat(rateLimiter.tryAcquire("1")).isZero();
+        assertThat(rateLimiter.tryAcquire("1")).isZero();
+
+        assertThat(rateLimiter.tryAcquire("1")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void tokensShouldRefillAtConfiguredRate() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("1");
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(rateLimiter.tryAcquire("1")).isZero();
+        assertThat(rateLimiter.tryAcquire("1")).isPositive();
+    }
+
+    @Test
+    void rejectedRequestShouldNotConsumeToken() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("1");
+        }
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.tryAcquire("1");
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(rateLimiter.tryAcquire("1")).isZero();
+    }
+
+    @Test
+    void usersShouldHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("1");
+        }
+
+        assertThat(rateLimiter.tryAcquire("1")).isPositive();
+        assertThat(rateLimiter.tryAcquire("2")).isZero();
+    }
+}
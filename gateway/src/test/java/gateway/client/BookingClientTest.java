@@ -5,22 +5,34 @@ import static org.mockito.Mockito.*;
 import static org.assertj.core.api.Assertions.*;
 
 import gateway.controller.State;
+import gateway.dto.BookingDecisionDto;
 import gateway.dto.BookingDto;
 import gateway.dto.RequestBookingDto;
 import gateway.dto.Status;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 
 public class BookingClientTest {
@@ -83,53 +95,82 @@ public class BookingClientTest {
     }
 
     @Test
-    public void testGetUserBookings() {
+    public void testApproveBookings() {
         BookingDto bookingDto = new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), null, null, Status.APPROVED);
-        List<BookingDto> bookings = Collections.singletonList(bookingDto);
-        ResponseEntity<List<BookingDto>> responseEntity = ResponseEntity.ok(bookings);
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true));
+        ResponseEntity<List<BookingDto>> responseEntity = ResponseEntity.ok(List.of(bookingDto));
 
-        when(restTemplate.exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.PATCH), any(HttpEntity.class),
                 any(ParameterizedTypeReference.class)))
                 .thenReturn(responseEntity);
 
-        ResponseEntity<List<BookingDto>> result = bookingClient.getUserBookings(1L, State.ALL);
+        ResponseEntity<List<BookingDto>> result = bookingClient.approveBookings(decisions, 1L);
 
         assertThat(result.getBody()).containsExactly(bookingDto);
-        assertThat(result.getStatusCodeValue()).isEqualTo(200);
+        verify(restTemplate, times(1)).exchange(endsWith("/bookings"), eq(HttpMethod.PATCH),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class));
+    }
 
-        verify(restTemplate, times(1)).exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
-                any(ParameterizedTypeReference.class));
+    @Test
+    public void testGetUserBookings() throws Exception {
+        byte[] json = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        bookingClient.getUserBookings(1L, State.ALL, null, null, response);
+
+        ArgumentCaptor<RequestCallback> requestCallback = ArgumentCaptor.forClass(RequestCallback.class);
+        ArgumentCaptor<ResponseExtractor<?>> responseExtractor = ArgumentCaptor.forClass(ResponseExtractor.class);
+        verify(restTemplate, times(1)).execute(endsWith("/bookings?state=ALL"), eq(HttpMethod.GET),
+                requestCallback.capture(), responseExtractor.capture());
+
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        requestCallback.getValue().doWithRequest(request);
+        assertThat(request.getHeaders().getFirst("X-Sharer-User-Id")).isEqualTo("1");
+
+        MockClientHttpResponse serverResponse = new MockClientHttpResponse(json, HttpStatus.OK);
+        serverResponse.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        serverResponse.getHeaders().set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        responseExtractor.getValue().extractData(serverResponse);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getHeader(HttpHeaders.TRANSFER_ENCODING)).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(json);
     }
 
     @Test
     public void testGetOwnerBookings() {
-        BookingDto bookingDto = new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), null, null, Status.APPROVED);
-        List<BookingDto> bookings = Collections.singletonList(bookingDto);
-        ResponseEntity<List<BookingDto>> responseEntity = ResponseEntity.ok(bookings);
+        bookingClient.getOwnerBookings(1L, State.ALL, 5L, 10, new MockHttpServletResponse());
 
-        when(restTemplate.exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
-                .thenReturn(responseEntity);
+        verify(restTemplate, times(1)).execute(endsWith("/bookings/owner?state=ALL&after=5&size=10"), eq(HttpMethod.GET),
+                any(RequestCallback.class), any(ResponseExtractor.class));
+    }
 
-        ResponseEntity<List<BookingDto>> result = bookingClient.getOwnerBookings(1L, State.ALL);
+    @Test
+    public void testGetAllBookings() {
+        bookingClient.getAllBookings(new MockHttpServletResponse());
 
-        assertThat(result.getBody()).containsExactly(bookingDto);
-        assertThat(result.getStatusCodeValue()).isEqualTo(200);
-        verify(restTemplate, times(1)).exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        verify(restTemplate, times(1)).execute(endsWith("/bookings/all"), eq(HttpMethod.GET),
+                any(RequestCallback.class), any(ResponseExtractor.class));
     }
 
     @Test
-    public void testGetAllBookings() {
-        BookingDto bookingDto = new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), null, null, Status.APPROVED);
-        List<BookingDto> bookings = Collections.singletonList(bookingDto);
-        ResponseEntity<List<BookingDto>> responseEntity = ResponseEntity.ok(bookings);
+    public void testStreamAllBookings() throws Exception {
+        byte[] ndjson = "{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
-        when(restTemplate.exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
-                .thenReturn(responseEntity);
+        bookingClient.streamAllBookings(outputStream);
 
-        ResponseEntity<List<BookingDto>> result = bookingClient.getAllBookings();
+        ArgumentCaptor<RequestCallback> requestCallback = ArgumentCaptor.forClass(RequestCallback.class);
+        ArgumentCaptor<ResponseExtractor<?>> responseExtractor = ArgumentCaptor.forClass(ResponseExtractor.class);
+        verify(restTemplate, times(1)).execute(endsWith("/bookings/all"), eq(HttpMethod.GET),
+                requestCallback.capture(), responseExtractor.capture());
 
-        assertThat(result.getBody()).containsExactly(bookingDto);
-        assertThat(result.getStatusCodeValue()).isEqualTo(200);
-        verify(restTemplate, times(1)).exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        requestCallback.getValue().doWithRequest(request);
+        assertThat(request.getHeaders().getAccept()).containsExactly(MediaType.APPLICATION_NDJSON);
+
+        responseExtractor.getValue().extractData(new MockClientHttpResponse(ndjson, HttpStatus.OK));
+        assertThat(outputStream.toByteArray()).isEqualTo(ndjson);
     }
 }
@@ -1,20 +1,31 @@
 package gateway.client;
 import gateway.dto.CommentDto;
+import gateway.dto.FreeIntervalDto;
 import gateway.dto.ItemBodyDto;
 import gateway.dto.ItemDto;
 import gateway.dto.RequestCommentDto;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Collection;
-import java.util.Collections;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -81,37 +92,90 @@ class ItemClientTest {
 
     @Test
     void testGetItemsByOwner() {
-        Long userId = 1L;
-        Collection<ItemDto> items = Collections.singletonList(new ItemDto());
-        ResponseEntity<Collection<ItemDto>> responseEntity = ResponseEntity.ok(items);
+        itemClient.getItemsByOwner(1L, new MockHttpServletResponse());
+
+        verify(restTemplate, times(1)).execute(endsWith("/items?ownerId=1"), eq(HttpMethod.GET),
+                any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testSearch() {
+        itemClient.search("test", null, null, 0, 10, 1L, new MockHttpServletResponse());
+
+        verify(restTemplate, times(1)).execute(endsWith("/items/search?text=test&from=0&size=10"), eq(HttpMethod.GET),
+                any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testSearchInPeriod() {
+        itemClient.search("test", LocalDateTime.of(2030, 1, 4, 18, 0), LocalDateTime.of(2030, 1, 6, 20, 0),
+                0, 10, 1L, new MockHttpServletResponse());
+
+        verify(restTemplate, times(1)).execute(
+                endsWith("/items/search?text=test&from=0&size=10&start=2030-01-04T18:00&end=2030-01-06T20:00"),
+                eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testAddAllStreamsRequestBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        request.setContent("{\"name\":\"Дрель\"}\n".getBytes(StandardCharsets.UTF_8));
+
+        itemClient.addAll(1L, request, new MockHttpServletResponse());
+
+        ArgumentCaptor<RequestCallback> callback = ArgumentCaptor.forClass(RequestCallback.class);
+        verify(restTemplate, times(1)).execute(endsWith("/items/bulk"), eq(HttpMethod.POST),
+                callback.capture(), any(ResponseExtractor.class));
+        // Тело передается потоком через StreamingHttpOutputMessage, а не буфером getBody()
+        ClientHttpRequest serverRequest = mock(ClientHttpRequest.class,
+                withSettings().extraInterfaces(StreamingHttpOutputMessage.class));
+        HttpHeaders headers = new HttpHeaders();
+        when(serverRequest.getHeaders()).thenReturn(headers);
+        callback.getValue().doWithRequest(serverRequest);
+
+        ArgumentCaptor<StreamingHttpOutputMessage.Body> body = ArgumentCaptor.forClass(StreamingHttpOutputMessage.Body.class);
+        verify((StreamingHttpOutputMessage) serverRequest).setBody(body.capture());
+        verify(serverRequest, never()).getBody();
+        // Неповторяемое тело отличает потоковую загрузку в CircuitBreakerHandler от тел DTO
+        assertThat(body.getValue().repeatable()).isFalse();
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        body.getValue().writeTo(sent);
+        assertThat(sent.toString(StandardCharsets.UTF_8)).isEqualTo("{\"name\":\"Дрель\"}\n");
+        assertThat(headers.getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(headers.getFirst("X-Sharer-User-Id")).isEqualTo("1");
+    }
+
+    @Test
+    void testGetAvailability() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 31, 12, 30);
+        ResponseEntity<List<FreeIntervalDto>> responseEntity = ResponseEntity.ok(List.of(new FreeIntervalDto(from, to)));
 
         when(restTemplate.exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
                 any(ParameterizedTypeReference.class)))
                 .thenReturn(responseEntity);
 
-        ResponseEntity<Collection<ItemDto>> result = itemClient.getItemsByOwner(userId);
+        ResponseEntity<List<FreeIntervalDto>> result = itemClient.getAvailability(1L, from, to);
 
-        assertThat(result.getBody()).containsExactlyElementsOf(items);
-        verify(restTemplate, times(1)).exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
-                any(ParameterizedTypeReference.class));
+        assertThat(result.getBody()).containsExactly(new FreeIntervalDto(from, to));
+        verify(restTemplate, times(1)).exchange(endsWith("/items/1/availability?from=2030-01-01T00:00&to=2030-01-31T12:30"),
+                eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
     }
 
     @Test
-    void testSearch() {
-        String searchText = "test";
-        Long userId = 1L;
-        List<ItemDto> items = Collections.singletonList(new ItemDto());
-        ResponseEntity<List<ItemDto>> responseEntity = ResponseEntity.ok(items);
+    void testSuggest() {
+        ResponseEntity<List<String>> responseEntity = ResponseEntity.ok(List.of("дрель", "дрели"));
 
         when(restTemplate.exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
                 any(ParameterizedTypeReference.class)))
                 .thenReturn(responseEntity);
 
-        ResponseEntity<List<ItemDto>> result = itemClient.search(searchText, userId);
+        ResponseEntity<List<String>> result = itemClient.suggest("др", 5);
 
-        assertThat(result.getBody()).containsExactlyElementsOf(items);
-        verify(restTemplate, times(1)).exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
-                any(ParameterizedTypeReference.class));
+        assertThat(result.getBody()).containsExactly("дрель", "дрели");
+        verify(restTemplate, times(1)).exchange(endsWith("/items/suggest?prefix=др&size=5"),
+                eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
     }
 
     @Test
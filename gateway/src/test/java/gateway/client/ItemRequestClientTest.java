@@ -7,15 +7,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Collections;
-import java.util.List;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -50,36 +49,18 @@ class ItemRequestClientTest {
 
     @Test
     void testGetUserItemRequests() {
-        Long userId = 1L;
-        List<RequestDto> requests = Collections.singletonList(new RequestDto());
-        ResponseEntity<List<RequestDto>> responseEntity = ResponseEntity.ok(requests);
-
-        when(restTemplate.exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
-                any(ParameterizedTypeReference.class)))
-                .thenReturn(responseEntity);
-
-        ResponseEntity<List<RequestDto>> result = itemRequestClient.getUserItemRequests(userId);
+        itemRequestClient.getUserItemRequests(1L, new MockHttpServletResponse());
 
-        assertThat(result.getBody()).containsExactlyElementsOf(requests);
-        verify(restTemplate, times(1)).exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
-                any(ParameterizedTypeReference.class));
+        verify(restTemplate, times(1)).execute(endsWith("/requests"), eq(HttpMethod.GET),
+                any(RequestCallback.class), any(ResponseExtractor.class));
     }
 
     @Test
     void testGetOtherUsersItemRequests() {
-        Long userId = 1L;
-        List<RequestDto> requests = Collections.singletonList(new RequestDto());
-        ResponseEntity<List<RequestDto>> responseEntity = ResponseEntity.ok(requests);
-
-        when(restTemplate.exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
-                any(ParameterizedTypeReference.class)))
-                .thenReturn(responseEntity);
-
-        ResponseEntity<List<RequestDto>> result = itemRequestClient.getOtherUsersItemRequests(userId);
+        itemRequestClient.getOtherUsersItemRequests(1L, new MockHttpServletResponse());
 
-        assertThat(result.getBody()).containsExactlyElementsOf(requests);
-        verify(restTemplate, times(1)).exchange(any(String.class), eq(HttpMethod.GET), any(HttpEntity.class),
-                any(ParameterizedTypeReference.class));
+        verify(restTemplate, times(1)).execute(endsWith("/requests/all"), eq(HttpMethod.GET),
+                any(RequestCallback.class), any(ResponseExtractor.class));
     }
 
     @Test
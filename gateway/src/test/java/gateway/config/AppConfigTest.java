@@ -1,15 +1,24 @@
 package gateway.config;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "shareit-server.http-client.max-total=50",
+        "shareit-server.http-client.max-per-route=20"
+})
 class AppConfigTest {
     /*
     Пришлось написать этот тест иначе jacoco не пропускал
@@ -42,4 +51,32 @@ class AppConfigTest {
         CloseableHttpClient httpClient = (CloseableHttpClient) factory.getHttpClient();
         assertNotNull(httpClient);
     }
-}
\ No newline at end of file
+
+    @Test
+    void connectionManagerShouldUseConfiguredPoolLimits() {
+        PoolingHttpClientConnectionManager connectionManager =
+                applicationContext.getBean(PoolingHttpClientConnectionManager.class);
+
+        assertEquals(50, connectionManager.getMaxTotal());
+        assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+    }
+
+    @Test
+    void poolUsageShouldBePublishedAsGauges() {
+        MeterRegistry meterRegistry = applicationContext.getBean(MeterRegistry.class);
+
+        assertEquals(50, meterRegistry.get("httpclient.pool.connections").tag("state", "max").gauge().value());
+        assertEquals(0, meterRegistry.get("httpclient.pool.connections").tag("state", "leased").gauge().value());
+        assertNotNull(meterRegistry.get("httpclient.pool.connections").tag("state", "pending").gauge());
+    }
+
+    @Test
+    void serverCircuitBreakerShouldUseConfiguredThresholds() {
+        CircuitBreakerRegistry registry = applicationContext.getBean(CircuitBreakerRegistry.class);
+        CircuitBreakerConfig config = registry.circuitBreaker(AppConfig.SERVER_CIRCUIT_BREAKER).getCircuitBreakerConfig();
+
+        assertEquals(CircuitBreakerConfig.SlidingWindowType.TIME_BASED, config.getSlidingWindowType());
+        assertEquals(50, config.getFailureRateThreshold());
+        assertEquals(Duration.ofSeconds(2), config.getSlowCallDurationThreshold());
+    }
+}
@@ -0,0 +1,157 @@
+package gateway.config;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecRuntime;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CircuitBreakerHandlerTest {
+    private static final int WINDOW = 4;
+
+    @Mock
+    private ExecChain chain;
+
+    @Mock
+    private ExecRuntime execRuntime;
+
+    private CircuitBreaker circuitBreaker;
+    private CircuitBreakerHandler handler;
+    private ExecChain.Scope scope;
+    private ClassicHttpRequest request;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+                .slidingWindowSize(WINDOW)
+                .minimumNumberOfCalls(WINDOW)
+                .failureRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofMillis(50))
+                .slowCallRateThreshold(50)
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        handler = new CircuitBreakerHandler(circuitBreaker);
+        request = ClassicRequestBuilder.get("/items/1").build();
+        scope = new ExecChain.Scope("ex-1", new HttpRoute(new HttpHost("localhost", 9090)),
+                request, execRuntime, HttpClientContext.create());
+    }
+
+    @Test
+    void serverErrorsShouldOpenCircuitAndFailFastWithoutCallingServer() throws Exception {
+        when(chain.proceed(any(), any())).thenReturn(new BasicClassicHttpResponse(500));
+        for (int i = 0; i < WINDOW; i++) {
+            assertThat(handler.execute(request, scope, chain).getCode()).isEqualTo(500);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> handler.execute(request, scope, chain))
+                .isInstanceOf(IOException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class);
+        verify(chain, times(WINDOW)).proceed(any(), any());
+    }
+
+    @Test
+    void connectionFailuresShouldOpenCircuit() throws Exception {
+        when(chain.proceed(any(), any())).thenThrow(new IOException("Connection refused"));
+
+        for (int i = 0; i < WINDOW; i++) {
+            assertThatThrownBy(() -> handler.execute(request, scope, chain)).hasMessage("Connection refused");
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void clientErrorsShouldNotOpenCircuit() throws Exception {
+        when(chain.proceed(any(), any())).thenReturn(new BasicClassicHttpResponse(404));
+
+        for (int i = 0; i < WINDOW * 2; i++) {
+            handler.execute(request, scope, chain);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void slowResponsesShouldOpenCircuit() throws Exception {
+        when(chain.proceed(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(60);
+            return new BasicClassicHttpResponse(200);
+        });
+
+        for (int i = 0; i < WINDOW; i++) {
+            handler.execute(request, scope, chain);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void slowStreamedUploadsShouldNotOpenCircuit() throws Exception {
+        when(chain.proceed(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(60);
+            return new BasicClassicHttpResponse(200);
+        });
+
+        for (int i = 0; i < WINDOW; i++) {
+            ClassicHttpRequest upload = ClassicRequestBuilder.post("/items/bulk")
+                    .setEntity(new InputStreamEntity(new ByteArrayInputStream("{}\n".getBytes()), -1,
+                            ContentType.create("application/x-ndjson")))
+                    .build();
+            handler.execute(upload, scope, chain);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getMetrics().getNumberOfSlowCalls()).isZero();
+        assertThat(circuitBreaker.getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(WINDOW);
+    }
+
+    @Test
+    void failedStreamedUploadsShouldStillOpenCircuit() throws Exception {
+        when(chain.proceed(any(), any())).thenReturn(new BasicClassicHttpResponse(503));
+
+        for (int i = 0; i < WINDOW; i++) {
+            ClassicHttpRequest upload = ClassicRequestBuilder.post("/items/bulk")
+                    .setEntity(new InputStreamEntity(new ByteArrayInputStream("{}\n".getBytes()), -1,
+                            ContentType.create("application/x-ndjson")))
+                    .build();
+            handler.execute(upload, scope, chain);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void successfulProbeInHalfOpenStateShouldCloseCircuit() throws Exception {
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        when(chain.proceed(any(), any())).thenReturn(new BasicClassicHttpResponse(200));
+
+        handler.execute(request, scope, chain);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
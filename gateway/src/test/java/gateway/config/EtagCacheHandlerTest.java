@@ -0,0 +1,176 @@
+package gateway.config;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecRuntime;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EtagCacheHandlerTest {
+    private static final String ITEM_JSON = "{\"id\":1,\"name\":\"Дрель\"}";
+
+    @Mock
+    private ExecChain chain;
+
+    @Mock
+    private ExecRuntime execRuntime;
+
+    private EtagCacheHandler handler;
+    private ExecChain.Scope scope;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        handler = new EtagCacheHandler(1024 * 1024, 64);
+        scope = new ExecChain.Scope("ex-1", new HttpRoute(new HttpHost("localhost", 9090)),
+                get("/", null), execRuntime, HttpClientContext.create());
+    }
+
+    @Test
+    void repeatedGetShouldRevalidateAndServeCachedBodyOnNotModified() throws Exception {
+        when(chain.proceed(any(), any())).thenReturn(ok("\"v1\""), notModified());
+
+        handler.execute(get("/items/1", 1L), scope, chain);
+        ClassicHttpResponse second = handler.execute(get("/items/1", 1L), scope, chain);
+
+        ArgumentCaptor<ClassicHttpRequest> requests = ArgumentCaptor.forClass(ClassicHttpRequest.class);
+        verify(chain, times(2)).proceed(requests.capture(), any());
+        assertThat(requests.getAllValues().get(0).getFirstHeader("If-None-Match")).isNull();
+        assertThat(requests.getAllValues().get(1).getFirstHeader("If-None-Match").getValue()).isEqualTo("\"v1\"");
+        assertThat(second.getCode()).isEqualTo(200);
+        assertThat(second.getFirstHeader("ETag").getValue()).isEqualTo("\"v1\"");
+        assertThat(EntityUtils.toString(second.getEntity())).isEqualTo(ITEM_JSON);
+    }
+
+    @Test
+    void changedResourceShouldReplaceCachedCopy() throws Exception {
+        when(chain.proceed(any(), any())).thenReturn(ok("\"v1\""), ok("\"v2\""), notModified());
+
+        handler.execute(get("/items/1", 1L), scope, chain);
+        handler.execute(get("/items/1", 1L), scope, chain);
+        handler.execute(get("/items/1", 1L), scope, chain);
+
+        ArgumentCaptor<ClassicHttpRequest> requests = ArgumentCaptor.forClass(ClassicHttpRequest.class);
+        verify(chain, times(3)).proceed(requests.capture(), any());
+        assertThat(requests.getAllValues().get(2).getFirstHeader("If-None-Match").getValue()).isEqualTo("\"v2\"");
+    }
+
+    @Test
+    void cachedResponseShouldNotBeSharedBetweenUsers() throws Exception {
+        when(chain.proceed(any(), any())).thenReturn(ok("\"v1\""), ok("\"v1\""));
+
+        handler.execute(get("/requests/1", 1L), scope, chain);
+        handler.execute(get("/requests/1", 2L), scope, chain);
+
+        ArgumentCaptor<ClassicHttpRequest> requests = ArgumentCaptor.forClass(ClassicHttpRequest.class);
+        verify(chain, times(2)).proceed(requests.capture(), any());
+        assertThat(requests.getAllValues().get(1).getFirstHeader("If-None-Match")).isNull();
+    }
+
+    @Test
+    void errorResponseShouldEvictCachedCopy() throws Exception {
+        when(chain.proceed(any(), any())).thenReturn(ok("\"v1\""), new BasicClassicHttpResponse(404), notModified());
+
+        handler.execute(get("/users/1", null), scope, chain);
+        ClassicHttpResponse notFound = handler.execute(get("/users/1", null), scope, chain);
+        handler.execute(get("/users/1", null), scope, chain);
+
+        assertThat(notFound.getCode()).isEqualTo(404);
+        ArgumentCaptor<ClassicHttpRequest> requests = ArgumentCaptor.forClass(ClassicHttpRequest.class);
+        verify(chain, times(3)).proceed(requests.capture(), any());
+        assertThat(requests.getAllValues().get(2).getFirstHeader("If-None-Match")).isNull();
+    }
+
+    @Test
+    void nonGetRequestsShouldPassThrough() throws Exception {
+        ClassicHttpRequest patch = ClassicRequestBuilder.patch("/items/1").build();
+        when(chain.proceed(any(), any())).thenReturn(ok("\"v1\""), ok("\"v1\""));
+
+        handler.execute(patch, scope, chain);
+        handler.execute(get("/items/1", null), scope, chain);
+
+        verify(chain).proceed(patch, scope);
+        verify(chain, never()).proceed(argThat(request -> request.containsHeader("If-None-Match")), any());
+    }
+
+    @Test
+    void listRequestsShouldPassThrough() throws Exception {
+        when(chain.proceed(any(), any())).thenReturn(ok("\"v1\""), ok("\"v1\""));
+
+        handler.execute(get("/items?from=0&size=10", 1L), scope, chain);
+        handler.execute(get("/items?from=0&size=10", 1L), scope, chain);
+        handler.execute(get("/items/bulk", 1L), scope, chain);
+
+        verify(chain, never()).proceed(argThat(request -> request.containsHeader("If-None-Match")), any());
+    }
+
+    @Test
+    void oversizedBodyOfUnknownLengthShouldBeStreamedWithoutCaching() throws Exception {
+        String large = "x".repeat(200);
+        BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+        response.setHeader("ETag", "\"v1\"");
+        response.setEntity(new InputStreamEntity(
+                new ByteArrayInputStream(large.getBytes(StandardCharsets.UTF_8)), -1, ContentType.APPLICATION_JSON));
+        when(chain.proceed(any(), any())).thenReturn(response, ok("\"v1\""));
+
+        ClassicHttpResponse first = handler.execute(get("/items/1", 1L), scope, chain);
+        handler.execute(get("/items/1", 1L), scope, chain);
+
+        assertThat(EntityUtils.toString(first.getEntity())).isEqualTo(large);
+        verify(chain, never()).proceed(argThat(request -> request.containsHeader("If-None-Match")), any());
+    }
+
+    @Test
+    void oversizedBodyOfKnownLengthShouldPassThrough() throws Exception {
+        BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+        response.setHeader("ETag", "\"v1\"");
+        StringEntity entity = new StringEntity("x".repeat(200), ContentType.APPLICATION_JSON);
+        response.setEntity(entity);
+        when(chain.proceed(any(), any())).thenReturn(response, ok("\"v1\""));
+
+        ClassicHttpResponse first = handler.execute(get("/users/1", null), scope, chain);
+        handler.execute(get("/users/1", null), scope, chain);
+
+        assertThat(first.getEntity()).isSameAs(entity);
+        verify(chain, never()).proceed(argThat(request -> request.containsHeader("If-None-Match")), any());
+    }
+
+    private static ClassicHttpRequest get(String uri, Long userId) {
+        ClassicRequestBuilder builder = ClassicRequestBuilder.get(uri);
+        if (userId != null) {
+            builder.addHeader("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return builder.build();
+    }
+
+    private static ClassicHttpResponse ok(String etag) {
+        BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+        response.setHeader("ETag", etag);
+        response.setEntity(new StringEntity(ITEM_JSON, ContentType.APPLICATION_JSON));
+        return response;
+    }
+
+    private static ClassicHttpResponse notModified() {
+        return new BasicClassicHttpResponse(304);
+    }
+}
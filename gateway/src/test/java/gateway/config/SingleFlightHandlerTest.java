@@ -0,0 +1,206 @@
+package gateway.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecRuntime;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SingleFlightHandlerTest {
+    private static final String ITEM_JSON = "{\"id\":1,\"name\":\"Дрель\"}";
+    private static final int FOLLOWERS = 9;
+
+    @Mock
+    private ExecChain chain;
+
+    @Mock
+    private ExecRuntime execRuntime;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseLeader = new CountDownLatch(1);
+    private final List<Thread> followerThreads = new ArrayList<>();
+    private SingleFlightHandler handler;
+    private ExecChain.Scope scope;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        handler = new SingleFlightHandler(1024 * 1024, registry);
+        scope = new ExecChain.Scope("ex-1", new HttpRoute(new HttpHost("localhost", 9090)),
+                get("/", null), execRuntime, HttpClientContext.create());
+    }
+
+    @Test
+    void concurrentIdenticalGetsShouldShareOneUpstreamCall() throws Exception {
+        when(chain.proceed(any(), any())).thenAnswer(blockingLeader(() -> json(ITEM_JSON)));
+
+        List<String> bodies = new ArrayList<>();
+        for (Future<ClassicHttpResponse> response : runConcurrently("/items/1")) {
+            bodies.add(EntityUtils.toString(response.get().getEntity()));
+        }
+
+        verify(chain, times(1)).proceed(any(), any());
+        assertThat(bodies).hasSize(FOLLOWERS + 1).containsOnly(ITEM_JSON);
+        assertThat(count("upstream")).isEqualTo(1);
+        assertThat(count("coalesced")).isEqualTo(FOLLOWERS);
+    }
+
+    @Test
+    void responseOfUnknownLengthShouldNotBeSharedAndFollowersGoUpstream() throws Exception {
+        when(chain.proceed(any(), any())).thenAnswer(blockingLeader(() -> {
+            BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+            response.setEntity(new InputStreamEntity(new ByteArrayInputStream(ITEM_JSON.getBytes(StandardCharsets.UTF_8)),
+                    -1, ContentType.APPLICATION_JSON));
+            return response;
+        }));
+
+        for (Future<ClassicHttpResponse> response : runConcurrently("/bookings/all")) {
+            assertThat(response.get().getCode()).isEqualTo(200);
+        }
+
+        verify(chain, times(FOLLOWERS + 1)).proceed(any(), any());
+        assertThat(count("coalesced")).isZero();
+    }
+
+    @Test
+    void leaderFailureShouldFailFollowers() throws Exception {
+        when(chain.proceed(any(), any())).thenAnswer(blockingLeader(() -> {
+            throw new IOException("Connection refused");
+        }));
+
+        List<Future<ClassicHttpResponse>> responses = runConcurrently("/items/1");
+
+        for (Future<ClassicHttpResponse> response : responses) {
+            assertThatThrownBy(response::get).hasCauseInstanceOf(IOException.class);
+        }
+        verify(chain, times(1)).proceed(any(), any());
+    }
+
+    @Test
+    void differentUsersShouldNotBeCoalesced() throws Exception {
+        when(chain.proceed(any(), any())).thenAnswer(blockingLeader(() -> json(ITEM_JSON)));
+
+        Future<ClassicHttpResponse> first = executor.submit(() -> handler.execute(get("/requests", 1L), scope, chain));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        ClassicHttpResponse second = handler.execute(get("/requests", 2L), scope, chain);
+        releaseLeader.countDown();
+
+        assertThat(first.get().getCode()).isEqualTo(200);
+        assertThat(second.getCode()).isEqualTo(200);
+        verify(chain, times(2)).proceed(any(), any());
+    }
+
+    @Test
+    void requestsWithDifferentAcceptShouldNotBeCoalesced() throws Exception {
+        when(chain.proceed(any(), any())).thenAnswer(blockingLeader(() -> json("[" + ITEM_JSON + "]")))
+                .thenAnswer(invocation -> {
+                    BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+                    response.setEntity(new StringEntity(ITEM_JSON + "\n", ContentType.create("application/x-ndjson", StandardCharsets.UTF_8)));
+                    return response;
+                });
+
+        Future<ClassicHttpResponse> json = executor.submit(() -> handler.execute(
+                ClassicRequestBuilder.get("/bookings/all").addHeader("Accept", "application/json").build(), scope, chain));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        ClassicHttpResponse ndjson = handler.execute(
+                ClassicRequestBuilder.get("/bookings/all").addHeader("Accept", "application/x-ndjson").build(), scope, chain);
+        releaseLeader.countDown();
+
+        assertThat(ndjson.getEntity().getContentType()).startsWith("application/x-ndjson");
+        assertThat(EntityUtils.toString(ndjson.getEntity())).isEqualTo(ITEM_JSON + "\n");
+        assertThat(EntityUtils.toString(json.get().getEntity())).isEqualTo("[" + ITEM_JSON + "]");
+        verify(chain, times(2)).proceed(any(), any());
+        assertThat(count("coalesced")).isZero();
+    }
+
+    // Первый вызов сервера ждет, пока остальные запросы не встанут в очередь за ним
+    private Answer<ClassicHttpResponse> blockingLeader(ResponseSupplier response) {
+        return invocation -> {
+            if (leaderStarted.getCount() > 0) {
+                leaderStarted.countDown();
+                assertThat(releaseLeader.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+            return response.get();
+        };
+    }
+
+    private List<Future<ClassicHttpResponse>> runConcurrently(String uri) throws InterruptedException {
+        List<Future<ClassicHttpResponse>> responses = new ArrayList<>();
+        responses.add(executor.submit(() -> handler.execute(get(uri, 1L), scope, chain)));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            CompletableFuture<ClassicHttpResponse> response = new CompletableFuture<>();
+            Thread follower = new Thread(() -> {
+                try {
+                    response.complete(handler.execute(get(uri, 1L), scope, chain));
+                } catch (Exception e) {
+                    response.completeExceptionally(e);
+                }
+            });
+            followerThreads.add(follower);
+            follower.start();
+            responses.add(response);
+        }
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> followerThreads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING));
+        releaseLeader.countDown();
+        return responses;
+    }
+
+    private double count(String result) {
+        return registry.get("gateway.singleflight.requests").tag("result", result).counter().count();
+    }
+
+    private static ClassicHttpRequest get(String uri, Long userId) {
+        ClassicRequestBuilder builder = ClassicRequestBuilder.get(uri);
+        if (userId != null) {
+            builder.addHeader("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return builder.build();
+    }
+
+    private static ClassicHttpResponse json(String body) {
+        BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+        response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
+
+    @FunctionalInterface
+    private interface ResponseSupplier {
+        ClassicHttpResponse get() throws Exception;
+    }
+}
@@ -3,19 +3,23 @@ package gateway.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import gateway.client.BookingClient;
+import gateway.dto.BookingDecisionDto;
 import gateway.dto.BookingDto;
 import gateway.dto.ItemDto;
 import gateway.dto.RequestBookingDto;
 import gateway.dto.Status;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -23,6 +27,8 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -102,11 +108,31 @@ public class BookingControllerTest {
         verify(bookingClient, times(1)).approveBooking(bookingId, true, 1L);
     }
 
+    @Test
+    void approveBookings() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false));
+        List<BookingDto> bookings = List.of(
+                new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.APPROVED),
+                new BookingDto(2L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.REJECTED));
+
+        when(bookingClient.approveBookings(decisions, 1L)).thenReturn(ResponseEntity.ok(bookings));
+
+        mockMvc.perform(patch("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"));
+
+        verify(bookingClient, times(1)).approveBookings(decisions, 1L);
+    }
+
     @Test
     void getUserBookings() throws Exception {
         List<BookingDto> bookings = Collections.singletonList(new BookingDto(/* инициализация */));
 
-        when(bookingClient.getUserBookings(1L, State.ALL)).thenReturn(ResponseEntity.ok(bookings));
+        doAnswer(respondWith(bookings)).when(bookingClient).getUserBookings(eq(1L), eq(State.ALL), isNull(), isNull(), any());
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -114,14 +140,14 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        verify(bookingClient, times(1)).getUserBookings(1L, State.ALL);
+        verify(bookingClient, times(1)).getUserBookings(eq(1L), eq(State.ALL), isNull(), isNull(), any());
     }
 
     @Test
     void getOwnerBookings() throws Exception {
         List<BookingDto> bookings = Collections.singletonList(new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.WAITING));
 
-        when(bookingClient.getOwnerBookings(1L, State.ALL)).thenReturn(ResponseEntity.ok(bookings));
+        doAnswer(respondWith(bookings)).when(bookingClient).getOwnerBookings(eq(1L), eq(State.ALL), isNull(), isNull(), any());
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -129,19 +155,52 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        verify(bookingClient, times(1)).getOwnerBookings(1L, State.ALL);
+        verify(bookingClient, times(1)).getOwnerBookings(eq(1L), eq(State.ALL), isNull(), isNull(), any());
     }
 
     @Test
     void getAllBookings() throws Exception {
         List<BookingDto> bookings = Collections.singletonList(new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.WAITING));
 
-        when(bookingClient.getAllBookings()).thenReturn(ResponseEntity.ok(bookings));
+        doAnswer(respondWith(bookings)).when(bookingClient).getAllBookings(any());
 
         mockMvc.perform(get("/bookings/all"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        verify(bookingClient, times(1)).getAllBookings();
+        verify(bookingClient, times(1)).getAllBookings(any());
+    }
+
+    @Test
+    void streamAllBookings() throws Exception {
+        String ndjson = "{\"id\":1}\n{\"id\":2}\n";
+
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(ndjson.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookingClient).streamAllBookings(any());
+
+        MvcResult result = mockMvc.perform(get("/bookings/all")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(ndjson));
+
+        verify(bookingClient, never()).getAllBookings(any());
+    }
+
+    // Клиент копирует ответ сервера прямо в ответ gateway; ответ - последний аргумент метода клиента
+    private Answer<Void> respondWith(Object body) {
+        return invocation -> {
+            HttpServletResponse response = invocation.getArgument(invocation.getArguments().length - 1);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(objectMapper.writeValueAsBytes(body));
+            return null;
+        };
     }
-}
\ No newline at end of file
+}
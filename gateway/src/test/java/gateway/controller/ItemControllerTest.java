@@ -3,19 +3,24 @@ package gateway.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import gateway.client.ItemClient;
 import gateway.dto.*;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -101,7 +106,7 @@ class ItemControllerTest {
         long userId = 1L;
         ItemDto itemDto = new ItemDto(1L, "Item Name", "Item Description", true, null, null, Collections.emptyList(), null);
 
-        when(itemClient.getItemsByOwner(userId)).thenReturn(ResponseEntity.ok(Collections.singletonList(itemDto)));
+        doAnswer(respondWith(Collections.singletonList(itemDto))).when(itemClient).getItemsByOwner(eq(userId), any());
 
         mockMvc.perform(get("/items")
                         .header("X-Sharer-User-Id", userId))
@@ -110,7 +115,7 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].name").value("Item Name"));
 
-        verify(itemClient, times(1)).getItemsByOwner(userId);
+        verify(itemClient, times(1)).getItemsByOwner(eq(userId), any());
     }
 
     @Test
@@ -119,7 +124,7 @@ class ItemControllerTest {
         String searchText = "search text";
         ItemDto itemDto = new ItemDto(1L, "Item Name", "Item Description", true, null, null, Collections.emptyList(), null);
 
-        when(itemClient.search(searchText, userId)).thenReturn(ResponseEntity.ok(Collections.singletonList(itemDto)));
+        doAnswer(respondWith(Collections.singletonList(itemDto))).when(itemClient).search(eq(searchText), isNull(), isNull(), eq(0), eq(10), eq(userId), any());
 
         mockMvc.perform(get("/items/search")
                         .param("text", searchText)
@@ -129,7 +134,51 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].name").value("Item Name"));
 
-        verify(itemClient, times(1)).search(searchText, userId);
+        verify(itemClient, times(1)).search(eq(searchText), isNull(), isNull(), eq(0), eq(10), eq(userId), any());
+    }
+
+    @Test
+    void suggest() throws Exception {
+        when(itemClient.suggest("др", 10)).thenReturn(ResponseEntity.ok(List.of("дрель", "дрели")));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "др"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("дрель"))
+                .andExpect(jsonPath("$[1]").value("дрели"));
+
+        verify(itemClient, times(1)).suggest("др", 10);
+    }
+
+    @Test
+    void searchItemsInPeriod() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 18, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 1, 6, 20, 0);
+        doAnswer(respondWith(List.of())).when(itemClient).search(eq("дрель"), eq(start), eq(end), eq(0), eq(10), eq(1L), any());
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("start", "2030-01-04T18:00:00")
+                        .param("end", "2030-01-06T20:00:00")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).search(eq("дрель"), eq(start), eq(end), eq(0), eq(10), eq(1L), any());
+    }
+
+    @Test
+    void getAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 31, 0, 0);
+        when(itemClient.getAvailability(1L, from, to)).thenReturn(ResponseEntity.ok(List.of(new FreeIntervalDto(from, to))));
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-31T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verify(itemClient, times(1)).getAvailability(1L, from, to);
     }
 
     @Test
@@ -151,5 +200,42 @@ class ItemControllerTest {
 
         verify(itemClient, times(1)).addComment(eq(itemId), any(), anyLong());
     }
-}
 
+    // Клиент копирует ответ сервера прямо в ответ gateway; ответ - последний аргумент метода клиента
+    @Test
+    void addAll() throws Exception {
+        long userId = 1L;
+        String body = "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}\n";
+
+        doAnswer(respondWith(List.of(Map.of("index", 0, "id", 1)))).when(itemClient).addAll(eq(userId), any(), any());
+
+        mockMvc.perform(post("/items/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(itemClient, times(1)).addAll(eq(userId), any(), any());
+    }
+
+    @Test
+    void addAllRejectsOtherContentTypes() throws Exception {
+        mockMvc.perform(post("/items/bulk")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("Дрель")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(itemClient);
+    }
+
+    private Answer<Void> respondWith(Object body) {
+        return invocation -> {
+            HttpServletResponse response = invocation.getArgument(invocation.getArguments().length - 1);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(objectMapper.writeValueAsBytes(body));
+            return null;
+        };
+    }
+}
@@ -3,12 +3,14 @@ package gateway.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import gateway.client.ItemRequestClient;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -69,7 +71,7 @@ class ItemRequestControllerTest {
         long userId = 1L;
         RequestDto requestDto = new RequestDto(1L, "test", null, LocalDateTime.now(), new HashSet<>());
 
-        when(itemRequestClient.getUserItemRequests(userId)).thenReturn(ResponseEntity.ok(Collections.singletonList(requestDto)));
+        doAnswer(respondWith(Collections.singletonList(requestDto))).when(itemRequestClient).getUserItemRequests(eq(userId), any());
 
         mockMvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", userId))
@@ -78,7 +80,7 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].description").value("test"));
 
-        verify(itemRequestClient, times(1)).getUserItemRequests(userId);
+        verify(itemRequestClient, times(1)).getUserItemRequests(eq(userId), any());
     }
 
     @Test
@@ -86,7 +88,7 @@ class ItemRequestControllerTest {
         long userId = 1L;
         RequestDto requestDto = new RequestDto(1L, "test", null, LocalDateTime.now(), new HashSet<>());
 
-        when(itemRequestClient.getOtherUsersItemRequests(userId)).thenReturn(ResponseEntity.ok(Collections.singletonList(requestDto)));
+        doAnswer(respondWith(Collections.singletonList(requestDto))).when(itemRequestClient).getOtherUsersItemRequests(eq(userId), any());
 
         mockMvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", userId))
@@ -95,7 +97,7 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].description").value("test"));
 
-        verify(itemRequestClient, times(1)).getOtherUsersItemRequests(userId);
+        verify(itemRequestClient, times(1)).getOtherUsersItemRequests(eq(userId), any());
     }
 
     @Test
@@ -115,4 +117,14 @@ class ItemRequestControllerTest {
 
         verify(itemRequestClient, times(1)).getItemRequestById(userId, requestId);
     }
-}
\ No newline at end of file
+
+    // Клиент копирует ответ сервера прямо в ответ gateway; ответ - последний аргумент метода клиента
+    private Answer<Void> respondWith(Object body) {
+        return invocation -> {
+            HttpServletResponse response = invocation.getArgument(invocation.getArguments().length - 1);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(objectMapper.writeValueAsBytes(body));
+            return null;
+        };
+    }
+}
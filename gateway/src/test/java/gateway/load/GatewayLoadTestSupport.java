@@ -0,0 +1,109 @@
+package gateway.load;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * Нагрузочный тест gateway: вместо сервера - заглушка, отвечающая с задержкой SERVER_DELAY.
+ * Tomcat ограничен TOMCAT_THREADS потоками, и CONCURRENT_REQUESTS запросов отправляются одновременно.
+ * На потоках платформы они проходят волнами по TOMCAT_THREADS штук, на виртуальных - почти все сразу.
+ */
+abstract class GatewayLoadTestSupport {
+    static final int TOMCAT_THREADS = 5;
+    static final int CONCURRENT_REQUESTS = 50;
+    static final Duration SERVER_DELAY = Duration.ofMillis(500);
+    // Столько длилась бы обработка, если бы одновременно обслуживалось не больше TOMCAT_THREADS запросов
+    static final Duration THREAD_BOUND_TIME = SERVER_DELAY.multipliedBy(CONCURRENT_REQUESTS / TOMCAT_THREADS);
+
+    private static HttpServer server;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+        registry.add("server.tomcat.threads.max", () -> TOMCAT_THREADS);
+    }
+
+    // Контекст каждого теста поднимается после @BeforeAll и получает адрес своей заглушки
+    @BeforeAll
+    static void startServer() {
+        server = createServer();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    // Время, за которое gateway ответил на все запросы пачки.
+    // Первая пачка прогревает JIT и пул соединений, чтобы замер показывал ожидание, а не стоимость старта
+    Duration sendConcurrently() {
+        send(CONCURRENT_REQUESTS);
+        long started = System.nanoTime();
+        List<HttpResponse<String>> responses = send(CONCURRENT_REQUESTS);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        responses.forEach(response -> {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Gateway ответил " + response.statusCode() + ": " + response.body());
+            }
+        });
+        return elapsed;
+    }
+
+    private List<HttpResponse<String>> send(int count) {
+        List<CompletableFuture<HttpResponse<String>>> futures = IntStream.range(0, count)
+                .mapToObj(i -> client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1"))
+                        .build(), HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static HttpServer createServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENT_REQUESTS);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/users", exchange -> {
+                try {
+                    Thread.sleep(SERVER_DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = "{\"id\":1,\"name\":\"User\",\"email\":\"user@example.com\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package gateway.load;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsLoadTest extends GatewayLoadTestSupport {
+
+    @Test
+    void requestsShouldQueueForTomcatThreads() {
+        assertThat(sendConcurrently()).isGreaterThanOrEqualTo(THREAD_BOUND_TIME);
+    }
+}
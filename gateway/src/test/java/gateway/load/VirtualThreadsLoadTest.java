@@ -0,0 +1,17 @@
+package gateway.load;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsLoadTest extends GatewayLoadTestSupport {
+
+    // Ожидание ответа сервера не занимает поток платформы, поэтому предел потоков Tomcat не ограничивает параллельность
+    @Test
+    void requestsShouldNotQueueForTomcatThreads() {
+        assertThat(sendConcurrently()).isLessThan(THREAD_BOUND_TIME.dividedBy(2));
+    }
+}
@@ -1,11 +1,19 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -13,6 +21,7 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto createBooking(@RequestBody RequestBookingDto requestBookingDto,
@@ -31,20 +40,49 @@ public class BookingController {
         return bookingService.approveBooking(bookingId, approved, ownerId);
     }
 
+    // Решения по нескольким бронированиям сразу; ответ - бронирования в порядке решений
+    @PatchMapping
+    public List<BookingDto> approveBookings(@RequestBody List<BookingDecisionDto> decisions,
+                                            @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return bookingService.approveBookings(decisions, ownerId);
+    }
+
     @GetMapping
     public List<BookingDto> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                            @RequestParam(defaultValue = "ALL") State state) {
-        return bookingService.getUserBookings(userId, state);
+                                            @RequestParam(defaultValue = "ALL") State state,
+                                            @RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer size) {
+        return bookingService.getUserBookings(userId, state, after, size);
     }
 
     @GetMapping("/owner")
     public List<BookingDto> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                             @RequestParam(defaultValue = "ALL") State state) {
-        return bookingService.getOwnerBookings(ownerId, state);
+                                             @RequestParam(defaultValue = "ALL") State state,
+                                             @RequestParam(required = false) Long after,
+                                             @RequestParam(required = false) Integer size) {
+        return bookingService.getOwnerBookings(ownerId, state, after, size);
     }
 
     @GetMapping("/all")
     public List<BookingDto> getAllBookings() {
         return bookingService.getAllBookings();
     }
+
+    // Выгрузка в NDJSON по запросу с Accept: application/x-ndjson - бронирования пишутся в ответ
+    // по одному на строку по мере чтения из базы, без сборки всего списка в памяти
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBookings() {
+        ObjectWriter writer = objectMapper.writer();
+        StreamingResponseBody body = outputStream -> bookingService.streamAllBookings(bookingDto -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(bookingDto));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
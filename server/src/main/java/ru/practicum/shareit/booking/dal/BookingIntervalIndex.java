@@ -0,0 +1,180 @@
+package ru.practicum.shareit.booking.dal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dal.CandidateFilter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Индекс подтвержденных бронирований по вещам.
+ * Для каждой вещи хранит объединенные непересекающиеся интервалы занятости (start -> end),
+ * поэтому проверка пересечения сводится к одному floorEntry за O(log n) без запроса в базу.
+ * Интервалы вещи загружаются из базы при первом обращении к ней.
+ * Свободные окна вещи - промежутки между этими интервалами, поэтому календарь доступности
+ * тоже строится из индекса без запроса в базу.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    // Сколько вещей загружается одним запросом при пакетной загрузке, чтобы список IN оставался ограниченным
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final BookingStorage bookingStorage;
+    private final Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> intervalsByItem = new ConcurrentHashMap<>();
+    // Номер подтверждения растет с каждым подтверждением. Для еще не загруженной вещи запоминается номер
+    // ее последнего подтверждения: по нему пакетная загрузка узнает, какие вещи могла прочитать без него
+    private final AtomicLong approvals = new AtomicLong();
+    private final Map<Long, Long> unloadedApprovals = new ConcurrentHashMap<>();
+
+    // Границы включительные, как и в прежнем запросе: start <= b.end AND end >= b.start
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, LocalDateTime> intervals = intervalsByItem.computeIfAbsent(itemId, this::load);
+        synchronized (intervals) {
+            Map.Entry<LocalDateTime, LocalDateTime> candidate = intervals.floorEntry(end);
+            return candidate != null && !candidate.getValue().isBefore(start);
+        }
+    }
+
+    // Свободные окна в [from, to] парами начало -> конец: границы окна совпадают с концом и началом
+    // соседних бронирований и в окно не входят
+    public List<Map.Entry<LocalDateTime, LocalDateTime>> freeIntervals(Long itemId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, LocalDateTime> intervals = intervalsByItem.computeIfAbsent(itemId, this::load);
+        List<Map.Entry<LocalDateTime, LocalDateTime>> free = new ArrayList<>();
+        synchronized (intervals) {
+            LocalDateTime cursor = from;
+            Map.Entry<LocalDateTime, LocalDateTime> covering = intervals.floorEntry(from);
+            if (covering != null) {
+                cursor = max(cursor, covering.getValue());
+            }
+            for (Map.Entry<LocalDateTime, LocalDateTime> busy : intervals.subMap(from, false, to, true).entrySet()) {
+                if (busy.getKey().isAfter(cursor)) {
+                    free.add(Map.entry(cursor, busy.getKey()));
+                }
+                cursor = max(cursor, busy.getValue());
+            }
+            if (cursor.isBefore(to)) {
+                free.add(Map.entry(cursor, to));
+            }
+        }
+        return free;
+    }
+
+    public boolean isLoaded(Long itemId) {
+        return intervalsByItem.containsKey(itemId);
+    }
+
+    // Фильтр для поиска вещей, свободных в [start, end]: интервалы еще не загруженных кандидатов
+    // подгружаются пачкой до прохода, поэтому проверка каждого кандидата идет без запроса в базу
+    public CandidateFilter freeDuring(LocalDateTime start, LocalDateTime end) {
+        return new CandidateFilter() {
+            @Override
+            public void prepare(Collection<Long> itemIds) {
+                loadAll(itemIds);
+            }
+
+            @Override
+            public boolean accept(Long itemId) {
+                return !hasOverlap(itemId, start, end);
+            }
+        };
+    }
+
+    // Удаленная вещь выбрасывается из индекса: иначе ее запись продолжала бы выдавать календарь
+    // доступности вместо 404, ведь существование загруженной вещи в базе не перепроверяется
+    public void remove(Long itemId) {
+        intervalsByItem.remove(itemId);
+        unloadedApprovals.remove(itemId);
+    }
+
+    // Если вещь еще не загружена, бронирование попадет в индекс при загрузке из базы. Номер подтверждения
+    // записывается до проверки, чтобы пакетная загрузка, начатая раньше, его увидела; у загруженной вещи он не нужен.
+    // Подтверждение идет после hasOverlap, который загружает вещь, поэтому записи остаются только от гонок
+    public void addApproved(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        long approval = approvals.incrementAndGet();
+        unloadedApprovals.put(itemId, approval);
+        NavigableMap<LocalDateTime, LocalDateTime> merged = intervalsByItem.computeIfPresent(itemId, (key, intervals) -> {
+            synchronized (intervals) {
+                merge(intervals, booking.getStart(), booking.getEnd());
+            }
+            return intervals;
+        });
+        if (merged != null) {
+            unloadedApprovals.remove(itemId, approval);
+        }
+    }
+
+    private NavigableMap<LocalDateTime, LocalDateTime> load(Long itemId) {
+        unloadedApprovals.remove(itemId);
+        NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+        for (Booking booking : bookingStorage.findByItemIdAndStatus(itemId, Status.APPROVED)) {
+            merge(intervals, booking.getStart(), booking.getEnd());
+        }
+        return intervals;
+    }
+
+    // addApproved пропускает еще не загруженные вещи, поэтому подтверждение, случившееся во время запроса пачки,
+    // в ней может не оказаться. Номер последнего подтверждения вещи сверяется под блокировкой ее записи:
+    // если вещь подтверждалась после начала запроса, она не записывается и позже загрузится сама по себе,
+    // остальные вещи пачки записываются, а следующее подтверждение дождется записи и дольет себя в нее
+    private void loadAll(Collection<Long> itemIds) {
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> !intervalsByItem.containsKey(itemId))
+                .toList();
+        for (int from = 0; from < missing.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + LOAD_CHUNK_SIZE, missing.size()));
+            long approvalsBefore = approvals.get();
+            Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> loaded = new HashMap<>();
+            chunk.forEach(itemId -> loaded.put(itemId, new TreeMap<>()));
+            for (Booking booking : bookingStorage.findByItemIdInAndStatus(chunk, Status.APPROVED)) {
+                merge(loaded.get(booking.getItem().getId()), booking.getStart(), booking.getEnd());
+            }
+            for (Long itemId : chunk) {
+                intervalsByItem.computeIfAbsent(itemId, key -> {
+                    Long approval = unloadedApprovals.get(key);
+                    if (approval != null && approval > approvalsBefore) {
+                        return null;
+                    }
+                    unloadedApprovals.remove(key);
+                    return loaded.get(key);
+                });
+            }
+        }
+    }
+
+    private static void merge(NavigableMap<LocalDateTime, LocalDateTime> intervals,
+                              LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> previous = intervals.floorEntry(start);
+        if (previous != null && !previous.getValue().isBefore(start)) {
+            start = previous.getKey();
+            end = max(end, previous.getValue());
+        }
+        Iterator<Map.Entry<LocalDateTime, LocalDateTime>> following = intervals.tailMap(start, true).entrySet().iterator();
+        while (following.hasNext()) {
+            Map.Entry<LocalDateTime, LocalDateTime> next = following.next();
+            if (next.getKey().isAfter(end)) {
+                break;
+            }
+            end = max(end, next.getValue());
+            following.remove();
+        }
+        intervals.put(start, end);
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
@@ -1,83 +1,125 @@
 package ru.practicum.shareit.booking.dal;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 
 public interface BookingStorage extends JpaRepository<Booking, Long> {
 
-    //Сделал тут JOIN FETCH так как мы в ItemServiceImpl часто будем отправлять booking.getItem().getId() - что будет заставлять постоянно подгружать данные
-    //Также как в маппере он крутит в дто сущность то делает доп запрос, чтобы получить booker, а теперь не делает
-    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.id IN :itemIds")
-    List<Booking> findAllByItemIdIn(@Param("itemIds") List<Long> itemIds);
+    // Все бронирования для выгрузки потоком: вещь, автор и запрос подтягиваются тем же запросом,
+    // а строки читаются из курсора порциями по fetch size, не загружая таблицу целиком
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT b FROM Booking b
+        JOIN FETCH b.item i
+        JOIN FETCH b.booker
+        LEFT JOIN FETCH i.request r
+        LEFT JOIN FETCH r.requester
+        ORDER BY b.id
+        """)
+    Stream<Booking> streamAll();
+
+    // Выборки по состояниям постраничные: keyset-пагинация по (start, id), поэтому любая страница
+    // читается с позиции курсора и стоит столько же, сколько первая
 
     // Получить все текущие не завершенные бронирования пользователя
-    @Query("""
-            SELECT b
-            FROM Booking b
-            WHERE b.booker.id = :userId
-            AND b.status = APPROVED
-            AND b.start < :now
-            AND b.end > :now
-            """)
-    List<Booking> findCurrentByBookerId(@Param("userId") Long userId,
-                                       @Param("now") LocalDateTime now);
+    Window<Booking> findByBookerIdAndStatusAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+            Long userId, Status status, LocalDateTime startBefore, LocalDateTime endAfter,
+            ScrollPosition position, Limit limit);
 
     // Получить все бронирования пользователя с определенным статусом
-    List<Booking> findByBookerIdAndStatus(Long userId, Status status);
+    Window<Booking> findByBookerIdAndStatusOrderByStartDescIdDesc(Long userId, Status status,
+                                                                  ScrollPosition position, Limit limit);
 
     // Получить все завершенные бронирования пользователя
-    List<Booking> findByBookerIdAndStatusAndEndBefore(Long userId, Status status, LocalDateTime now);
+    Window<Booking> findByBookerIdAndStatusAndEndBeforeOrderByStartDescIdDesc(Long userId, Status status, LocalDateTime now,
+                                                                              ScrollPosition position, Limit limit);
 
     // Получить все будущие бронирования пользователя
-    List<Booking> findByBookerIdAndStartAfter(Long userId, LocalDateTime now);
+    Window<Booking> findByBookerIdAndStartAfterOrderByStartDescIdDesc(Long userId, LocalDateTime now,
+                                                                      ScrollPosition position, Limit limit);
 
     // Получить все бронирования пользователя отсортированные по дате начала
-    List<Booking> findByBookerIdOrderByStartDesc(Long userId);
+    Window<Booking> findByBookerIdOrderByStartDescIdDesc(Long userId, ScrollPosition position, Limit limit);
 
     // Получить все текущие бронирования владельца предмета
-    @Query("""
-            SELECT b
-            FROM Booking b
-            WHERE b.item.owner.id = :ownerId
-            AND b.status = APPROVED
-            AND b.start < :now
-            AND b.end > :now
-            """)
-    List<Booking> findCurrentByOwnerId(@Param("ownerId") Long ownerId,
-                                       @Param("now") LocalDateTime now);
+    Window<Booking> findByItemOwnerIdAndStatusAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+            Long ownerId, Status status, LocalDateTime startBefore, LocalDateTime endAfter,
+            ScrollPosition position, Limit limit);
 
     // Получить все бронирования владельца предмета с определенным статусом
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, Status status);
+    Window<Booking> findByItemOwnerIdAndStatusOrderByStartDescIdDesc(Long ownerId, Status status,
+                                                                     ScrollPosition position, Limit limit);
 
     // Получить все завершенные бронирования владельца предмета
-    List<Booking> findByItemOwnerIdAndStatusAndEndBefore(Long userId, Status status, LocalDateTime now);
+    Window<Booking> findByItemOwnerIdAndStatusAndEndBeforeOrderByStartDescIdDesc(Long ownerId, Status status, LocalDateTime now,
+                                                                                 ScrollPosition position, Limit limit);
 
     // Получить все будущие бронирования владельца предмета
-    List<Booking> findByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime now);
+    Window<Booking> findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Long ownerId, LocalDateTime now,
+                                                                         ScrollPosition position, Limit limit);
 
     // Получить все бронирования владельца предмета отсортированные по дате начала
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId);
+    Window<Booking> findByItemOwnerIdOrderByStartDescIdDesc(Long ownerId, ScrollPosition position, Limit limit);
+
+    // Курсор страницы ищется только среди бронирований, которые видит вызывающий: как автор или как владелец вещи
+    Optional<Booking> findByIdAndBookerId(Long bookingId, Long bookerId);
+
+    Optional<Booking> findByIdAndItemOwnerId(Long bookingId, Long ownerId);
+
+    // Получить все бронирования вещи с определенным статусом
+    List<Booking> findByItemIdAndStatus(Long itemId, Status status);
 
-    // Проверить пересечение по времени
+    List<Booking> findByItemIdInAndStatus(Collection<Long> itemIds, Status status);
+
+    // Последнее начавшееся и ближайшее будущее подтвержденные бронирования вещи - для сводки по вещи
+    Optional<Booking> findFirstByItemIdAndStatusAndStartLessThanEqualOrderByStartDesc(Long itemId, Status status,
+                                                                                      LocalDateTime now);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(Long itemId, Status status,
+                                                                            LocalDateTime now);
+
+    // Сменить статус, только если бронирование все еще ожидает подтверждения
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id = :bookingId AND b.status = WAITING")
+    int updateWaitingStatus(@Param("bookingId") Long bookingId, @Param("status") Status status);
+
+    // Бронирования пакетного подтверждения вместе с вещью, автором и запросом - одним запросом по первичному ключу
     @Query("""
-        SELECT COUNT(b) > 0
-        FROM Booking b
-        WHERE b.item.id = :itemId
-        AND (
-            :startNewBooking <= b.end AND :endNewBooking >= b.start
-            )
-        AND b.status = APPROVED
+        SELECT b FROM Booking b
+        JOIN FETCH b.item i
+        JOIN FETCH b.booker
+        LEFT JOIN FETCH i.request r
+        LEFT JOIN FETCH r.requester
+        WHERE b.id IN :bookingIds
         """)
-    Boolean timeCrossingCheck(@Param("itemId") Long itemId,
-                              @Param("startNewBooking") LocalDateTime startNewBooking,
-                              @Param("endNewBooking") LocalDateTime endNewBooking);
+    List<Booking> findAllWithItemByIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+
+    // То же, что updateWaitingStatus, для пакета; транзакцию открывает вызывающий, чтобы пакет менялся целиком
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id IN :bookingIds AND b.status = WAITING")
+    int updateWaitingStatuses(@Param("bookingIds") Collection<Long> bookingIds, @Param("status") Status status);
 
     // Проверить завершенное бронирование пользователя по UserId и ItemId
     @Query("""
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingSummaryStorage extends JpaRepository<ItemBookingSummary, Long> {
+
+    // Вещи, у которых следующее бронирование уже началось и стало последним
+    List<ItemBookingSummary> findByNextStartLessThanEqual(LocalDateTime now);
+}
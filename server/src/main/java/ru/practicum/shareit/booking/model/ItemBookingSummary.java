@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Готовые последнее и следующее подтвержденные бронирования вещи, чтобы не вычислять их при каждом чтении
+@Getter
+@Setter
+@Entity
+@Table(name = "item_booking_summary")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item")
+    private Long itemId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking")
+    private Booking lastBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking")
+    private Booking nextBooking;
+
+    // Начало следующего бронирования: когда оно наступит, строку нужно пересчитать
+    @Column(name = "next_start")
+    private LocalDateTime nextStart;
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок, разбитый на полосы по id вещи.
+ * Подтверждения разных вещей почти никогда не конкурируют за одну блокировку,
+ * а подтверждения одной вещи выполняются строго по очереди.
+ */
+@Component
+public class BookingLocks {
+    private final Lock[] stripes;
+
+    public BookingLocks() {
+        int size = Integer.highestOneBit(Math.max(16, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forItem(Long itemId) {
+        return stripes[stripe(itemId)];
+    }
+
+    // Блокировки нескольких вещей без повторов и всегда в порядке номера полосы:
+    // два пакета с общими вещами берут их в одном порядке и не ждут друг друга по кругу
+    public List<Lock> forItems(Collection<Long> itemIds) {
+        return itemIds.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .mapToObj(stripe -> stripes[stripe])
+                .toList();
+    }
+
+    private int stripe(Long itemId) {
+        int hash = itemId.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
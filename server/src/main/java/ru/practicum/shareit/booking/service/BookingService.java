@@ -1,10 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface BookingService {
@@ -15,9 +17,13 @@ public interface BookingService {
 
     BookingDto approveBooking(Long bookingId, Boolean approved, Long ownerId);
 
-    List<BookingDto> getUserBookings(Long userId, State state);
+    List<BookingDto> approveBookings(List<BookingDecisionDto> decisions, Long ownerId);
 
-    List<BookingDto> getOwnerBookings(Long ownerId, State state);
+    List<BookingDto> getUserBookings(Long userId, State state, Long after, Integer size);
+
+    List<BookingDto> getOwnerBookings(Long ownerId, State state, Long after, Integer size);
 
     List<BookingDto> getAllBookings();
+
+    void streamAllBookings(Consumer<BookingDto> consumer);
 }
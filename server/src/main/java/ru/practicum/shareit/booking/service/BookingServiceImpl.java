@@ -1,11 +1,20 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -16,17 +25,36 @@ import ru.practicum.shareit.item.dal.ItemStorage;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistence;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+
     private final BookingStorage bookingStorage;
     private final UserStorage userStorage;
     private final ItemStorage itemStorage;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingLocks bookingLocks;
+    private final ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+    private final UserExistence userExistence;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public BookingDto addBooking(RequestBookingDto requestBookingDto, Long userId) {
@@ -39,7 +67,7 @@ public class BookingServiceImpl implements BookingService {
         if (!item.getAvailable()) {
             throw new ValidationException("Item не доступен к брони");
         }
-        if (bookingStorage.timeCrossingCheck(item.getId(), requestBookingDto.getStart(), requestBookingDto.getEnd())) {
+        if (bookingIntervalIndex.hasOverlap(item.getId(), requestBookingDto.getStart(), requestBookingDto.getEnd())) {
             throw new BookingTimeException("Пересечение по времени с уже подтвержденным бронированием");
         }
         Booking booking = BookingMapper.mapToBooking(requestBookingDto, item, booker);
@@ -49,7 +77,9 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public BookingDto getBookingById(Long bookingId, Long userId) {
-        userStorage.findById(userId).orElseThrow(() -> new NotFoundException("User not found"));
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException("User not found");
+        }
         Booking booking = bookingStorage.findById(bookingId).orElseThrow(() -> new NotFoundException("Booking not found"));
         User owner = booking.getItem().getOwner();
         User booker = booking.getBooker();
@@ -67,29 +97,127 @@ public class BookingServiceImpl implements BookingService {
         if (!booking.getItem().getOwner().getId().equals(ownerId)) {
             throw new ValidationException("Подтверждать бронирование может только владелец вещи");
         }
-        userStorage.findById(ownerId).orElseThrow(() -> new NotFoundException("User not found"));
+        if (!userExistence.exists(ownerId)) {
+            throw new NotFoundException("User not found");
+        }
         if (!booking.getStatus().equals(Status.WAITING)) {
             throw new ValidationException("Бронирование не в режиме ожидания");
         }
-        if (approved) {
-            booking.setStatus(Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        Lock lock = bookingLocks.forItem(booking.getItem().getId());
+        lock.lock();
+        try {
+            if (approved && bookingIntervalIndex.hasOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+                throw new BookingTimeException("Пересечение по времени с уже подтвержденным бронированием");
+            }
+            // Статус меняется условным UPDATE: из двух одновременных решений по одной брони проходит только первое
+            try {
+                if (bookingStorage.updateWaitingStatus(bookingId, status) == 0) {
+                    throw new ValidationException("Бронирование не в режиме ожидания");
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Сработало ограничение базы на пересечение подтвержденных бронирований
+                throw new BookingTimeException("Пересечение по времени с уже подтвержденным бронированием");
+            }
+            booking.setStatus(status);
+            if (approved) {
+                bookingIntervalIndex.addApproved(booking);
+                itemBookingSummaryUpdater.refresh(booking.getItem().getId());
+            }
+        } finally {
+            lock.unlock();
         }
-        bookingStorage.save(booking);
         return BookingMapper.mapToBookingDto(booking);
     }
 
+    // Пакет решений владельца: бронирования читаются одним запросом и проверяются в памяти, затем под блокировками
+    // всех затронутых вещей статусы меняются условными UPDATE в одной транзакции. Пакет проходит целиком или никак
+    @Override
+    public List<BookingDto> approveBookings(List<BookingDecisionDto> decisions, Long ownerId) {
+        if (!userExistence.exists(ownerId)) {
+            throw new NotFoundException("User not found");
+        }
+        Map<Long, Boolean> approvedById = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (approvedById.containsKey(decision.getBookingId())) {
+                throw new ValidationException("Бронирование " + decision.getBookingId() + " указано в пакете несколько раз");
+            }
+            approvedById.put(decision.getBookingId(), decision.getApproved());
+        }
+        Map<Long, Booking> bookings = bookingStorage.findAllWithItemByIdIn(approvedById.keySet()).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        for (Long bookingId : approvedById.keySet()) {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                throw new NotFoundException("Booking not found id: " + bookingId);
+            }
+            if (!booking.getItem().getOwner().getId().equals(ownerId)) {
+                throw new ValidationException("Подтверждать бронирование может только владелец вещи");
+            }
+            if (!booking.getStatus().equals(Status.WAITING)) {
+                throw new ValidationException("Бронирование " + bookingId + " не в режиме ожидания");
+            }
+        }
+        List<Long> approvedIds = approvedById.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<Long> rejectedIds = approvedById.entrySet().stream()
+                .filter(entry -> !entry.getValue())
+                .map(Map.Entry::getKey)
+                .toList();
+        List<Booking> approved = approvedIds.stream().map(bookings::get).toList();
+        List<Long> approvedItemIds = approved.stream().map(booking -> booking.getItem().getId()).distinct().toList();
+
+        List<Lock> locks = bookingLocks.forItems(bookings.values().stream().map(booking -> booking.getItem().getId()).toList());
+        locks.forEach(Lock::lock);
+        try {
+            checkApprovedOverlaps(approved);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    int updated = updateWaitingStatuses(approvedIds, Status.APPROVED)
+                            + updateWaitingStatuses(rejectedIds, Status.REJECTED);
+                    // Кто-то успел решить часть пакета раньше - откатываем весь пакет
+                    if (updated != approvedById.size()) {
+                        throw new ValidationException("Бронирование не в режиме ожидания");
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Сработало ограничение базы на пересечение подтвержденных бронирований
+                throw new BookingTimeException("Пересечение по времени с уже подтвержденным бронированием");
+            }
+            approvedById.forEach((bookingId, isApproved) ->
+                    bookings.get(bookingId).setStatus(isApproved ? Status.APPROVED : Status.REJECTED));
+            approved.forEach(bookingIntervalIndex::addApproved);
+            if (!approvedItemIds.isEmpty()) {
+                itemBookingSummaryUpdater.refresh(approvedItemIds);
+            }
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+        return approvedById.keySet().stream()
+                .map(bookings::get)
+                .map(BookingMapper::mapToBookingDto)
+                .toList();
+    }
+
     @Override
-    public List<BookingDto> getUserBookings(Long userId, State state) {
-        userStorage.findById(userId).orElseThrow(() -> new NotFoundException("User not found"));
-        List<Booking> userBookings = switch (state) {
-            case CURRENT -> bookingStorage.findCurrentByBookerId(userId, LocalDateTime.now());
-            case WAITING -> bookingStorage.findByBookerIdAndStatus(userId, Status.WAITING);
-            case PAST -> bookingStorage.findByBookerIdAndStatusAndEndBefore(userId, Status.APPROVED, LocalDateTime.now());
-            case REJECTED -> bookingStorage.findByBookerIdAndStatus(userId, Status.REJECTED);
-            case FUTURE -> bookingStorage.findByBookerIdAndStartAfter(userId, LocalDateTime.now());
-            default -> bookingStorage.findByBookerIdOrderByStartDesc(userId);
+    public List<BookingDto> getUserBookings(Long userId, State state, Long after, Integer size) {
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException("User not found");
+        }
+        Limit limit = limit(size);
+        ScrollPosition position = scrollPosition(after, bookingId -> bookingStorage.findByIdAndBookerId(bookingId, userId));
+        LocalDateTime now = LocalDateTime.now();
+        Window<Booking> userBookings = switch (state) {
+            case CURRENT -> bookingStorage.findByBookerIdAndStatusAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                    userId, Status.APPROVED, now, now, position, limit);
+            case WAITING -> bookingStorage.findByBookerIdAndStatusOrderByStartDescIdDesc(userId, Status.WAITING, position, limit);
+            case PAST -> bookingStorage.findByBookerIdAndStatusAndEndBeforeOrderByStartDescIdDesc(
+                    userId, Status.APPROVED, now, position, limit);
+            case REJECTED -> bookingStorage.findByBookerIdAndStatusOrderByStartDescIdDesc(userId, Status.REJECTED, position, limit);
+            case FUTURE -> bookingStorage.findByBookerIdAndStartAfterOrderByStartDescIdDesc(userId, now, position, limit);
+            default -> bookingStorage.findByBookerIdOrderByStartDescIdDesc(userId, position, limit);
         };
         return userBookings.stream()
                 .map(BookingMapper::mapToBookingDto)
@@ -97,18 +225,25 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getOwnerBookings(Long ownerId, State state) {
-        userStorage.findById(ownerId).orElseThrow(() -> new NotFoundException("User not found"));
+    public List<BookingDto> getOwnerBookings(Long ownerId, State state, Long after, Integer size) {
+        if (!userExistence.exists(ownerId)) {
+            throw new NotFoundException("User not found");
+        }
         if (itemStorage.findByOwnerId(ownerId).isEmpty()) {
             throw new NotFoundException("У данного пользователя нет предметов");
         }
-        List<Booking> userBookings = switch (state) {
-            case CURRENT -> bookingStorage.findCurrentByOwnerId(ownerId, LocalDateTime.now());
-            case WAITING -> bookingStorage.findByItemOwnerIdAndStatus(ownerId, Status.WAITING);
-            case PAST -> bookingStorage.findByItemOwnerIdAndStatusAndEndBefore(ownerId, Status.APPROVED, LocalDateTime.now());
-            case REJECTED -> bookingStorage.findByItemOwnerIdAndStatus(ownerId, Status.REJECTED);
-            case FUTURE -> bookingStorage.findByItemOwnerIdAndStartAfter(ownerId, LocalDateTime.now());
-            default -> bookingStorage.findByItemOwnerIdOrderByStartDesc(ownerId);
+        Limit limit = limit(size);
+        ScrollPosition position = scrollPosition(after, bookingId -> bookingStorage.findByIdAndItemOwnerId(bookingId, ownerId));
+        LocalDateTime now = LocalDateTime.now();
+        Window<Booking> userBookings = switch (state) {
+            case CURRENT -> bookingStorage.findByItemOwnerIdAndStatusAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                    ownerId, Status.APPROVED, now, now, position, limit);
+            case WAITING -> bookingStorage.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(ownerId, Status.WAITING, position, limit);
+            case PAST -> bookingStorage.findByItemOwnerIdAndStatusAndEndBeforeOrderByStartDescIdDesc(
+                    ownerId, Status.APPROVED, now, position, limit);
+            case REJECTED -> bookingStorage.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(ownerId, Status.REJECTED, position, limit);
+            case FUTURE -> bookingStorage.findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(ownerId, now, position, limit);
+            default -> bookingStorage.findByItemOwnerIdOrderByStartDescIdDesc(ownerId, position, limit);
         };
         return userBookings.stream()
                 .map(BookingMapper::mapToBookingDto)
@@ -122,4 +257,65 @@ public class BookingServiceImpl implements BookingService {
                 .map(BookingMapper::mapToBookingDto)
                 .toList();
     }
+
+    // Каждое бронирование сразу отдается потребителю, а контекст персистентности периодически очищается,
+    // поэтому выгрузка занимает постоянный объем памяти независимо от размера таблицы
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllBookings(Consumer<BookingDto> consumer) {
+        try (Stream<Booking> bookings = bookingStorage.streamAll()) {
+            Iterator<Booking> iterator = bookings.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(BookingMapper.mapToBookingDto(iterator.next()));
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    // Подтверждаемые бронирования пакета не должны пересекаться ни с уже подтвержденными, ни между собой:
+    // после сортировки по началу у каждой вещи достаточно сравнить соседей
+    private void checkApprovedOverlaps(List<Booking> approved) {
+        Map<Long, List<Booking>> byItem = approved.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        byItem.forEach((itemId, itemBookings) -> {
+            Booking previous = null;
+            for (Booking booking : itemBookings.stream().sorted(Comparator.comparing(Booking::getStart)).toList()) {
+                if (previous != null && !booking.getStart().isAfter(previous.getEnd())) {
+                    throw new BookingTimeException("Бронирования " + previous.getId() + " и " + booking.getId()
+                            + " пересекаются по времени");
+                }
+                if (bookingIntervalIndex.hasOverlap(itemId, booking.getStart(), booking.getEnd())) {
+                    throw new BookingTimeException("Пересечение по времени с уже подтвержденным бронированием");
+                }
+                previous = booking;
+            }
+        });
+    }
+
+    private int updateWaitingStatuses(List<Long> bookingIds, Status status) {
+        return bookingIds.isEmpty() ? 0 : bookingStorage.updateWaitingStatuses(bookingIds, status);
+    }
+
+    // Курсор - id последнего бронирования предыдущей страницы, следующая страница начинается сразу после его (start, id).
+    // Чужое бронирование курсором не считается, иначе по ответу можно было бы узнать, существует ли оно
+    private static ScrollPosition scrollPosition(Long after, Function<Long, Optional<Booking>> ownBooking) {
+        if (after == null) {
+            return ScrollPosition.keyset();
+        }
+        Booking cursor = ownBooking.apply(after).orElseThrow(() -> new NotFoundException("Booking not found"));
+        return ScrollPosition.forward(Map.of("start", cursor.getStart(), "id", cursor.getId()));
+    }
+
+    private static Limit limit(Integer size) {
+        if (size == null) {
+            return Limit.unlimited();
+        }
+        if (size <= 0) {
+            throw new ValidationException("Параметр size должен быть положительным");
+        }
+        return Limit.of(size);
+    }
 }
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.dal.ItemBookingSummaryStorage;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Поддерживает таблицу item_booking_summary - последнее и следующее подтвержденные бронирования каждой вещи.
+ * Сводка пересчитывается при подтверждении бронирования, а когда наступает начало следующего бронирования,
+ * ее пересчитывает планировщик. Ожидающие и отклоненные бронирования в сводку не попадают.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryUpdater {
+    private final BookingStorage bookingStorage;
+    private final ItemBookingSummaryStorage itemBookingSummaryStorage;
+    private final BookingLocks bookingLocks;
+
+    // Пересчет идет под блокировкой вещи, поэтому одновременные подтверждения не затирают сводку устаревшим результатом
+    public void refresh(Long itemId) {
+        Lock lock = bookingLocks.forItem(itemId);
+        lock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Booking last = bookingStorage.findFirstByItemIdAndStatusAndStartLessThanEqualOrderByStartDesc(
+                    itemId, Status.APPROVED, now).orElse(null);
+            Booking next = bookingStorage.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(
+                    itemId, Status.APPROVED, now).orElse(null);
+            itemBookingSummaryStorage.save(new ItemBookingSummary(itemId, last, next, next == null ? null : next.getStart()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void refresh(List<Long> itemIds) {
+        itemIds.forEach(this::refresh);
+    }
+
+    // Вещи, у которых следующее бронирование уже началось: оно становится последним, а следующим - очередное
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.refresh-interval:PT1M}")
+    public void refreshStarted() {
+        List<Long> itemIds = itemBookingSummaryStorage.findByNextStartLessThanEqual(LocalDateTime.now()).stream()
+                .map(ItemBookingSummary::getItemId)
+                .toList();
+        if (!itemIds.isEmpty()) {
+            log.info("Пересчет сводки бронирований для {} вещей", itemIds.size());
+            refresh(itemIds);
+        }
+    }
+}
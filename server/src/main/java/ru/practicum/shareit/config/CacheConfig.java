@@ -0,0 +1,15 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Кэши приложения. Размер, время жизни и сбор статистики задаются в application.properties
+ * (spring.cache.caffeine.spec), статистика публикуется в actuator как метрики cache.*.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    // Собранные ItemDto с комментариями по id и версии вещи
+    public static final String ITEMS = "items";
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Периодические задачи приложения. Интервалы задаются в application.properties.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
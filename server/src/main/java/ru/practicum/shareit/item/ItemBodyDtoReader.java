@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import ru.practicum.shareit.item.dto.ItemBodyDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Читает вещи из тела запроса потоковым парсером по одной: JSON-массив или NDJSON (объекты подряд).
+ * В памяти держится только текущий элемент. Ошибка разбора бросается как UncheckedIOException,
+ * после нее чтение прекращается - найти начало следующего элемента в испорченном потоке нельзя.
+ */
+class ItemBodyDtoReader implements Iterator<ItemBodyDto> {
+    private final JsonParser parser;
+    private boolean started;
+    // Прочитан ли элемент, на котором стоит token: следующий токен берется только при следующем hasNext,
+    // чтобы ошибка в нем не теряла уже разобранный элемент
+    private boolean consumed;
+    private JsonToken token;
+
+    ItemBodyDtoReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            JsonToken first = advance();
+            token = first == JsonToken.START_ARRAY ? advance() : first;
+        } else if (consumed) {
+            consumed = false;
+            token = advance();
+        }
+        return token != null && token != JsonToken.END_ARRAY;
+    }
+
+    @Override
+    public ItemBodyDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            ItemBodyDto itemBodyDto = parser.readValueAs(ItemBodyDto.class);
+            consumed = true;
+            return itemBodyDto;
+        } catch (IOException e) {
+            token = null;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonToken advance() {
+        try {
+            return parser.nextToken();
+        } catch (IOException e) {
+            token = null;
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.RequestCommentDto;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemBodyDto;
+import ru.practicum.shareit.item.dto.ItemBulkResultDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -16,7 +27,7 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
-
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto add(@RequestBody ItemBodyDto itemBodyDto,
@@ -24,6 +35,16 @@ public class ItemController {
         return itemService.add(userId, itemBodyDto);
     }
 
+    // Массовое добавление: JSON-массив или NDJSON разбирается потоково прямо из тела запроса,
+    // в ответе - результат по каждому элементу в порядке следования
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public List<ItemBulkResultDto> addAll(InputStream body,
+                                          @RequestHeader("X-Sharer-User-Id") long userId) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            return itemService.addAll(userId, new ItemBodyDtoReader(parser));
+        }
+    }
+
     @PatchMapping("/{itemsId}")
     public ItemDto update(@PathVariable long itemsId, @RequestBody ItemBodyDto itemBodyDto,
                           @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -31,9 +52,15 @@ public class ItemController {
         return itemService.update(itemsId, itemBodyDto, userId);
     }
 
+    // Версия читается раньше карточки: на совпавший If-None-Match ответ 304 без загрузки вещи.
+    // Версия берется из памяти (ItemVersions), поэтому карточка из кэша отдается без запросов к базе
     @GetMapping("/{itemsId}")
-    public ItemDto getById(@PathVariable long itemsId) {
-        return itemService.getById(itemsId);
+    public ItemDto getById(@PathVariable long itemsId, WebRequest webRequest) {
+        long version = itemService.getVersion(itemsId);
+        if (webRequest.checkNotModified("item-" + itemsId + "-" + version)) {
+            return null;
+        }
+        return itemService.getById(itemsId, version);
     }
 
     @GetMapping
@@ -41,9 +68,33 @@ public class ItemController {
         return itemService.getItemsByOwner(userId);
     }
 
+    // С периодом start-end в выдачу попадают только вещи без подтвержденных бронирований на этот период
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text) {
-        return itemService.search(text);
+    public List<ItemDto> search(@RequestParam String text,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                @RequestParam(defaultValue = "0") Integer from,
+                                @RequestParam(defaultValue = "10") Integer size) {
+        if (start == null && end == null) {
+            return itemService.search(text, from, size);
+        }
+        if (start == null || end == null) {
+            throw new ValidationException("Для поиска свободных вещей нужны и начало, и конец периода");
+        }
+        return itemService.search(text, start, end, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix,
+                                @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.suggest(prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<FreeIntervalDto> getAvailability(@PathVariable Long itemId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @PostMapping("{itemId}/comment")
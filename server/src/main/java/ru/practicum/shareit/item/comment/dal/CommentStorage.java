@@ -8,7 +8,9 @@ import java.util.List;
 
 public interface CommentStorage extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByItemId(Long itemIds);
+    // Автор нужен мапперу сразу: карточка вещи собирается целиком и кладется в кэш
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.id = :itemId")
+    List<Comment> findByItemId(@Param("itemId") Long itemId);
 
     //Сделал тут JOIN FETCH иначе в интеграционном тесте метода getItemsByOwner получал LazyException
     @Query("SELECT c FROM Comment c JOIN FETCH c.item i JOIN FETCH c.author a WHERE i.id IN :itemIds")
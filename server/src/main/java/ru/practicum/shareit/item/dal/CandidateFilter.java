@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dal;
+
+import java.util.Collection;
+
+// Дополнительное условие поиска: проверяется в том же проходе по кандидатам индекса, до ранжирования и разбиения на страницы
+public interface CandidateFilter {
+    CandidateFilter ALL = itemId -> true;
+
+    // Вызывается один раз со всеми кандидатами до проверки - например, чтобы загрузить нужные данные одним запросом
+    default void prepare(Collection<Long> itemIds) {
+    }
+
+    boolean accept(Long itemId);
+}
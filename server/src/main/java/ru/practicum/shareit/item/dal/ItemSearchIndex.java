@@ -0,0 +1,285 @@
+package ru.practicum.shareit.item.dal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Инвертированный индекс доступных вещей для поиска подстроки в названии и описании.
+ * Каждое поле разбивается на n-граммы длиной от 1 до 3 символов (в нижнем регистре): короткий запрос
+ * отвечается одним списком из индекса, длинный - пересечением списков его триграмм с последующей
+ * проверкой подстроки. Состав результата совпадает с прежним LIKE '%text%', но без обращения к таблице.
+ * Совпавшие вещи ранжируются по BM25 над словами названия и описания, и наружу отдается только одна страница.
+ * Индекс заполняется из базы при первом поиске и дальше обновляется при добавлении и изменении вещей.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Стандартные параметры BM25 и вес названия относительно описания
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final Comparator<Hit> BY_RELEVANCE = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(Hit::itemId);
+
+    private final ItemStorage itemStorage;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private long nameTokens;
+    private long descriptionTokens;
+    private volatile boolean loaded;
+
+    // Возвращает id доступных вещей, у которых название или описание содержит текст, от более релевантных к менее,
+    // начиная с позиции from и не больше size штук
+    public List<Long> search(String text, int from, int size) {
+        return search(text, from, size, CandidateFilter.ALL);
+    }
+
+    // То же с фильтром: отброшенные им вещи не занимают места на странице, поэтому страница всегда полная, пока есть совпадения.
+    // Фильтр может ходить в базу, поэтому готовится и проверяется вне блокировки: под ней сначала собираются только id
+    // вещей, содержащих текст, а затем принятые фильтром оцениваются в ту же кучу, что и без фильтра.
+    // Без фильтра совпадения оцениваются сразу в кучу, и в памяти не бывает больше from + size оценок
+    public List<Long> search(String text, int from, int size, CandidateFilter filter) {
+        ensureLoaded();
+        String query = text.toLowerCase(Locale.ROOT);
+        List<Long> accepted = null;
+        if (filter != CandidateFilter.ALL) {
+            List<Long> matches;
+            lock.readLock().lock();
+            try {
+                matches = candidates(query).stream()
+                        .filter(itemId -> documents.get(itemId).contains(query))
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+            filter.prepare(matches);
+            accepted = matches.stream()
+                    .filter(filter::accept)
+                    .toList();
+        }
+        // Куча на from + size лучших: худший из отобранных лежит в вершине и вытесняется следующим, кто лучше него
+        long limit = (long) from + size;
+        PriorityQueue<Hit> top = new PriorityQueue<>(BY_RELEVANCE.reversed());
+        lock.readLock().lock();
+        try {
+            List<Scorer> scorers = tokens(query).stream()
+                    .distinct()
+                    .map(this::scorer)
+                    .toList();
+            double averageName = Math.max(1.0, (double) nameTokens / Math.max(1, documents.size()));
+            double averageDescription = Math.max(1.0, (double) descriptionTokens / Math.max(1, documents.size()));
+            // Между проходами вещь могла измениться или удалиться, поэтому принятые фильтром проверяются заново
+            for (Long itemId : accepted != null ? accepted : candidates(query)) {
+                Document document = documents.get(itemId);
+                if (document == null || !document.contains(query)) {
+                    continue;
+                }
+                Hit hit = new Hit(itemId, score(document, scorers, averageName, averageDescription));
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (BY_RELEVANCE.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> page = new ArrayList<>(top);
+        page.sort(BY_RELEVANCE);
+        return page.stream()
+                .skip(from)
+                .map(Hit::itemId)
+                .toList();
+    }
+
+    // Если индекс еще не загружен, ничего не делаем - вещь попадет в него при загрузке из базы.
+    // Флаг проверяется под блокировкой записи: загрузка держит ее до конца, поэтому изменение, пришедшее
+    // во время загрузки, дождется ее и применится, а не потеряется
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            removeDocument(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                add(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Удаленная вещь (например, каскадно вместе с владельцем) не должна занимать места на странице выдачи
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeDocument(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                for (Item item : itemStorage.findByAvailableTrue()) {
+                    add(item);
+                }
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Начинаем с самого короткого списка, чтобы пересечение сразу стало маленьким
+    private Set<Long> candidates(String query) {
+        if (query.length() <= GRAM) {
+            return postings.getOrDefault(query, Set.of());
+        }
+        List<Set<Long>> lists = new HashSet<>(grams(query, GRAM)).stream()
+                .map(gram -> postings.getOrDefault(gram, Set.<Long>of()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .toList();
+        Set<Long> result = new HashSet<>(lists.getFirst());
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    // Слово запроса засчитывается слову вещи, если содержится в нем, - так ранжирование согласовано с поиском подстроки.
+    // IDF считается по числу вещей, в которых слово встречается
+    private Scorer scorer(String term) {
+        long documentFrequency = candidates(term).stream()
+                .map(documents::get)
+                .filter(document -> count(document.nameTokens(), term) > 0 || count(document.descriptionTokens(), term) > 0)
+                .count();
+        double idf = Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        return new Scorer(term, idf);
+    }
+
+    private static double score(Document document, List<Scorer> scorers, double averageName, double averageDescription) {
+        double score = 0;
+        for (Scorer scorer : scorers) {
+            score += scorer.idf() * (NAME_WEIGHT * bm25(count(document.nameTokens(), scorer.term()),
+                    document.nameTokens().size(), averageName)
+                    + DESCRIPTION_WEIGHT * bm25(count(document.descriptionTokens(), scorer.term()),
+                    document.descriptionTokens().size(), averageDescription));
+        }
+        return score;
+    }
+
+    private static double bm25(int termFrequency, int length, double averageLength) {
+        if (termFrequency == 0) {
+            return 0;
+        }
+        return termFrequency * (K1 + 1) / (termFrequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static int count(List<String> tokens, String term) {
+        int count = 0;
+        for (String token : tokens) {
+            if (token.contains(term)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void add(Item item) {
+        String name = lowerCase(item.getName());
+        String description = lowerCase(item.getDescription());
+        Document document = new Document(name, description, tokens(name), tokens(description));
+        documents.put(item.getId(), document);
+        nameTokens += document.nameTokens().size();
+        descriptionTokens += document.descriptionTokens().size();
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(item.getId());
+        }
+    }
+
+    private void removeDocument(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        nameTokens -= document.nameTokens().size();
+        descriptionTokens -= document.descriptionTokens().size();
+        for (String gram : document.grams()) {
+            Set<Long> itemIds = postings.get(gram);
+            itemIds.remove(itemId);
+            if (itemIds.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // Разбивает текст в нижнем регистре на слова из букв и цифр
+    static List<String> tokens(String text) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(text))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static List<String> grams(String text, int length) {
+        return IntStream.rangeClosed(0, text.length() - length)
+                .mapToObj(i -> text.substring(i, i + length))
+                .toList();
+    }
+
+    private static String lowerCase(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private record Hit(Long itemId, double score) {
+    }
+
+    private record Scorer(String term, double idf) {
+    }
+
+    private record Document(String name, String description, List<String> nameTokens, List<String> descriptionTokens) {
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String field : List.of(name, description)) {
+                for (int length = 1; length <= GRAM; length++) {
+                    grams.addAll(ItemSearchIndex.grams(field, length));
+                }
+            }
+            return grams;
+        }
+    }
+}
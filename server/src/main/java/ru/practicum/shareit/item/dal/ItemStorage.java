@@ -1,12 +1,16 @@
 package ru.practicum.shareit.item.dal;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemStorage extends JpaRepository<Item, Long> {
@@ -16,9 +20,55 @@ public interface ItemStorage extends JpaRepository<Item, Long> {
             "WHERE i.owner.id = :ownerId")
     List<Item> findByOwnerId(@Param("ownerId") Long ownerId);
 
-    @Query("SELECT i FROM Item i WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) OR " +
-            "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) AND i.available = true")
-    List<Item> searchByText(@Param("text") String text);
+    // Вещи владельца с последним и следующим бронированиями из готовой сводки - одним запросом по индексу владельца,
+    // дальше только соединения по первичным ключам
+    @Query("""
+        SELECT i AS item, lb AS lastBooking, lbu AS lastBooker, nb AS nextBooking, nbu AS nextBooker
+        FROM Item i
+        LEFT JOIN FETCH i.request r
+        LEFT JOIN FETCH r.requester
+        LEFT JOIN ItemBookingSummary s ON s.itemId = i.id
+        LEFT JOIN s.lastBooking lb
+        LEFT JOIN lb.booker lbu
+        LEFT JOIN s.nextBooking nb
+        LEFT JOIN nb.booker nbu
+        WHERE i.owner.id = :ownerId
+        ORDER BY i.id
+        """)
+    List<OwnerItemView> findByOwnerIdWithBookings(@Param("ownerId") Long ownerId);
+
+    // Все доступные вещи - для заполнения поискового индекса
+    List<Item> findByAvailableTrue();
 
     List<Item> findByRequestId(Long requsetId);
-}
\ No newline at end of file
+
+    // Версия карточки вещи для ETag - без загрузки вещи и комментариев
+    @Query(value = "SELECT version FROM items WHERE id = :itemId", nativeQuery = true)
+    Optional<Long> findVersionById(@Param("itemId") Long itemId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE items SET version = version + 1 WHERE id IN :itemIds", nativeQuery = true)
+    int incrementVersions(@Param("itemIds") Collection<Long> itemIds);
+
+    // Вещи, в карточку которых попадает имя пользователя: с его комментариями и созданные по его запросам
+    @Query(value = """
+        SELECT c.item FROM comments c WHERE c.author = :userId
+        UNION
+        SELECT i.id FROM requests r JOIN items i ON i.request = r.id WHERE r.requester = :userId
+        """, nativeQuery = true)
+    List<Long> findIdsShowingUser(@Param("userId") Long userId);
+
+    // Вещи, каскадно удаляемые вместе с пользователем: его собственные и созданные по его запросам
+    @Query(value = """
+        SELECT i.id FROM items i WHERE i.owner = :userId
+        UNION
+        SELECT i.id FROM requests r JOIN items i ON i.request = r.id WHERE r.requester = :userId
+        """, nativeQuery = true)
+    List<Long> findIdsDeletedWithUser(@Param("userId") Long userId);
+
+    // Запросы, в ответ на которые владелец создавал вещи
+    @Query(value = "SELECT DISTINCT request FROM items WHERE owner = :ownerId AND request IS NOT NULL",
+            nativeQuery = true)
+    List<Long> findRequestIdsByOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.item.dal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Префиксное дерево слов из названий доступных вещей для автодополнения.
+ * В конечном узле слова хранится число вещей, в названии которых оно встречается, а каждый узел помнит
+ * до MAX_SUGGESTIONS самых частых слов своего поддерева, поэтому подсказка - это спуск по префиксу и готовый список.
+ * При росте счетчика списки на пути обновляются сразу, при уменьшении - сбрасываются и пересчитываются при следующем запросе.
+ * Дерево заполняется из базы при первом запросе и дальше обновляется при добавлении и изменении вещей.
+ * Подсказки идут под блокировкой чтения и не мешают друг другу; сброшенный список узла может пересчитать
+ * любой читатель - результат у всех одинаковый, а volatile-поле публикует его целиком.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSuggestIndex {
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final Comparator<Node> BY_POPULARITY = Comparator.comparingInt((Node node) -> node.count).reversed()
+            .thenComparing(node -> node.token);
+
+    private final ItemStorage itemStorage;
+    private final Node root = new Node(null, '\0');
+    private final Map<Long, Set<String>> tokensByItem = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    // Самые частые слова, начинающиеся с префикса, не больше size и не больше MAX_SUGGESTIONS штук
+    public List<String> suggest(String prefix, int size) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (char letter : prefix.toLowerCase(Locale.ROOT).toCharArray()) {
+                node = node.children.get(letter);
+                if (node == null) {
+                    return List.of();
+                }
+            }
+            return top(node).stream()
+                    .limit(Math.min(size, MAX_SUGGESTIONS))
+                    .map(suggestion -> suggestion.token)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Если дерево еще не загружено, ничего не делаем - вещь попадет в него при загрузке из базы.
+    // Флаг проверяется под блокировкой записи, чтобы изменение во время загрузки дождалось ее, а не потерялось
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                update(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Слова удаленной вещи перестают подсказываться, как только их не остается ни у одной вещи
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> tokens = loaded ? tokensByItem.remove(itemId) : null;
+            if (tokens != null) {
+                tokens.forEach(this::decrement);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(Item item) {
+        Set<String> oldTokens = tokensByItem.getOrDefault(item.getId(), Set.of());
+        Set<String> newTokens = Boolean.TRUE.equals(item.getAvailable()) ? nameTokens(item) : Set.of();
+        for (String token : oldTokens) {
+            if (!newTokens.contains(token)) {
+                decrement(token);
+            }
+        }
+        for (String token : newTokens) {
+            if (!oldTokens.contains(token)) {
+                increment(token);
+            }
+        }
+        if (newTokens.isEmpty()) {
+            tokensByItem.remove(item.getId());
+        } else {
+            tokensByItem.put(item.getId(), newTokens);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                for (Item item : itemStorage.findByAvailableTrue()) {
+                    Set<String> tokens = nameTokens(item);
+                    tokens.forEach(this::increment);
+                    tokensByItem.put(item.getId(), tokens);
+                }
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void increment(String token) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        for (char letter : token.toCharArray()) {
+            Node parent = node;
+            node = parent.children.computeIfAbsent(letter, key -> new Node(parent, key));
+            path.add(node);
+        }
+        node.token = token;
+        node.count++;
+        // Счетчик слова вырос, остальные не изменились: достаточно поставить его на место в готовых списках
+        for (Node ancestor : path) {
+            if (ancestor.top == null) {
+                continue;
+            }
+            if (!ancestor.top.contains(node)) {
+                ancestor.top.add(node);
+            }
+            ancestor.top.sort(BY_POPULARITY);
+            if (ancestor.top.size() > MAX_SUGGESTIONS) {
+                ancestor.top.removeLast();
+            }
+        }
+    }
+
+    private void decrement(String token) {
+        Node node = root;
+        for (char letter : token.toCharArray()) {
+            node = node.children.get(letter);
+        }
+        node.count--;
+        // Слово могло опуститься ниже того, кто не попал в список, - такие списки строим заново при следующем запросе
+        for (Node ancestor = node; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor.top != null && ancestor.top.contains(node)) {
+                ancestor.top = null;
+            }
+        }
+        // Убираем из дерева ветку, в которой не осталось слов
+        while (node != root && node.count == 0 && node.children.isEmpty()) {
+            node.parent.children.remove(node.key);
+            node = node.parent;
+        }
+    }
+
+    private static List<Node> top(Node node) {
+        List<Node> cached = node.top;
+        if (cached == null) {
+            PriorityQueue<Node> best = new PriorityQueue<>(BY_POPULARITY.reversed());
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(node);
+            while (!stack.isEmpty()) {
+                Node current = stack.pop();
+                if (current.count > 0) {
+                    best.add(current);
+                    if (best.size() > MAX_SUGGESTIONS) {
+                        best.poll();
+                    }
+                }
+                current.children.values().forEach(stack::push);
+            }
+            cached = new ArrayList<>(best);
+            cached.sort(BY_POPULARITY);
+            node.top = cached;
+        }
+        return cached;
+    }
+
+    private static Set<String> nameTokens(Item item) {
+        String name = item.getName() == null ? "" : item.getName().toLowerCase(Locale.ROOT);
+        return new HashSet<>(ItemSearchIndex.tokens(name));
+    }
+
+    private static final class Node {
+        private final Node parent;
+        private final char key;
+        private final Map<Character, Node> children = new TreeMap<>();
+        private String token;
+        private int count;
+        private volatile List<Node> top;
+
+        private Node(Node parent, char key) {
+            this.parent = parent;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dal;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+
+// Строка списка вещей владельца: вещь вместе с последним и ближайшим подтвержденными бронированиями
+public interface OwnerItemView {
+
+    Item getItem();
+
+    Booking getLastBooking();
+
+    Booking getNextBooking();
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Результат по одному элементу массовой загрузки: index - позиция во входных данных,
+// id - созданная вещь, error - почему элемент не сохранен
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBulkResultDto {
+    private int index;
+    private Long id;
+    private String error;
+
+    public static ItemBulkResultDto created(int index, Long id) {
+        return new ItemBulkResultDto(index, id, null);
+    }
+
+    public static ItemBulkResultDto failed(int index, String error) {
+        return new ItemBulkResultDto(index, null, error);
+    }
+}
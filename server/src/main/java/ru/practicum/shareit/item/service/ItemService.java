@@ -2,22 +2,36 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.RequestCommentDto;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemBodyDto;
+import ru.practicum.shareit.item.dto.ItemBulkResultDto;
 
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 public interface ItemService {
 
     ItemDto add(Long userId, ItemBodyDto itemBodyDto);
 
+    List<ItemBulkResultDto> addAll(Long userId, Iterator<ItemBodyDto> itemBodyDtos);
+
     ItemDto update(Long itemsId, ItemBodyDto itemBodyDto, Long userId);
 
-    ItemDto getById(Long itemsId);
+    long getVersion(Long itemsId);
+
+    ItemDto getById(Long itemsId, long version);
 
     List<ItemDto> getItemsByOwner(Long userId);
 
-    List<ItemDto> search(String text);
+    List<ItemDto> search(String text, Integer from, Integer size);
+
+    List<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, Integer from, Integer size);
+
+    List<String> suggest(String prefix, Integer size);
+
+    List<FreeIntervalDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 
     CommentDto addComment(Long itemId, RequestCommentDto requestCommentDto, Long userId);
 }
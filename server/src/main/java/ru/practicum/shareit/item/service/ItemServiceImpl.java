@@ -1,12 +1,18 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.booking.dal.BookingStorage;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.exception.BookingTimeException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.dal.CommentStorage;
@@ -14,47 +20,113 @@ import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.RequestCommentDto;
 import ru.practicum.shareit.item.comment.mapper.CommentMapper;
 import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemBodyDto;
+import ru.practicum.shareit.item.dto.ItemBulkResultDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dal.ItemSearchIndex;
 import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.dal.ItemSuggestIndex;
+import ru.practicum.shareit.item.dal.OwnerItemView;
 import ru.practicum.shareit.request.dal.RequestStorage;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistence;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    // Сколько вещей массовой загрузки сохраняется одной транзакцией; внутри нее вставки идут пакетами hibernate.jdbc.batch_size
+    private static final int BULK_CHUNK_SIZE = 500;
+
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
     private final BookingStorage bookingStorage;
     private final CommentStorage commentStorage;
     private final RequestStorage requestStorage;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final UserExistence userExistence;
+    private final ItemVersions itemVersions;
+    private final EntityManager entityManager;
 
 
     @Override
     public ItemDto add(Long userId, ItemBodyDto itemBodyDto) {
-        User user = userStorage.findById(userId).orElseThrow(() -> new NotFoundException("User not found id: " + userId));
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException("User not found id: " + userId);
+        }
         Item item = ItemMapper.mapToItem(itemBodyDto);
-        item.setOwner(user);
+        // Владелец в ItemDto не попадает, поэтому для внешнего ключа достаточно ссылки без загрузки пользователя
+        item.setOwner(userStorage.getReferenceById(userId));
         if (itemBodyDto.getRequestId() != null) {
             Request request = requestStorage.findById(itemBodyDto.getRequestId()).orElseThrow(() -> new NotFoundException("Request not found"));
             item.setRequest(request);
         }
         item = itemStorage.save(item);
+        // Новая вещь попадает в карточку запроса
+        if (item.getRequest() != null) {
+            requestStorage.incrementVersions(List.of(item.getRequest().getId()));
+        }
+        itemSearchIndex.index(item);
+        itemSuggestIndex.index(item);
         return ItemMapper.mapToItemDto(item);
     }
 
+    // Элементы читаются по одному и копятся до BULK_CHUNK_SIZE, поэтому в памяти не бывает больше одной порции.
+    // Элемент с ошибкой пропускается, остальные сохраняются; после ошибки разбора JSON чтение прекращается
+    @Override
+    public List<ItemBulkResultDto> addAll(Long userId, Iterator<ItemBodyDto> itemBodyDtos) {
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException("User not found id: " + userId);
+        }
+        List<ItemBulkResultDto> results = new ArrayList<>();
+        Map<Integer, ItemBodyDto> chunk = new LinkedHashMap<>();
+        int index = 0;
+        try {
+            while (itemBodyDtos.hasNext()) {
+                ItemBodyDto itemBodyDto = itemBodyDtos.next();
+                String error = validateNewItem(itemBodyDto);
+                if (error != null) {
+                    results.add(ItemBulkResultDto.failed(index, error));
+                } else {
+                    chunk.put(index, itemBodyDto);
+                }
+                if (chunk.size() == BULK_CHUNK_SIZE) {
+                    results.addAll(saveChunk(userId, chunk));
+                    chunk.clear();
+                }
+                index++;
+            }
+        } catch (UncheckedIOException e) {
+            log.warn("Массовая загрузка вещей пользователя {} прервана на элементе {}: {}", userId, index,
+                    e.getCause().getMessage());
+            results.add(ItemBulkResultDto.failed(index, "Некорректный JSON: " + e.getCause().getMessage()));
+        }
+        results.addAll(saveChunk(userId, chunk));
+        results.sort(Comparator.comparingInt(ItemBulkResultDto::getIndex));
+        return results;
+    }
+
     @Override
     public ItemDto update(Long itemsId, ItemBodyDto itemBodyDto, Long userId) {
         Item existingItem = itemStorage.findById(itemsId).orElseThrow(() -> new NotFoundException("Item not found"));
@@ -63,11 +135,27 @@ public class ItemServiceImpl implements ItemService {
         }
         ItemMapper.updateItemFromRequest(existingItem, itemBodyDto);
         itemStorage.save(existingItem);
+        // Версии растут после сохранения: прочитавший новую версию уже видит новые данные
+        itemVersions.increment(List.of(itemsId));
+        if (existingItem.getRequest() != null) {
+            requestStorage.incrementVersions(List.of(existingItem.getRequest().getId()));
+        }
+        itemSearchIndex.index(existingItem);
+        itemSuggestIndex.index(existingItem);
         return ItemMapper.mapToItemDto(existingItem);
     }
 
     @Override
-    public ItemDto getById(Long itemsId) {
+    public long getVersion(Long itemsId) {
+        return itemVersions.get(itemsId)
+                .orElseThrow(() -> new NotFoundException("Item not found id: " + itemsId));
+    }
+
+    // Карточка вещи читается чаще всего, поэтому собранный ItemDto вместе с комментариями кэшируется
+    // по id и версии: изменение вещи или имени автора комментария дает новый ключ, а старый вытесняется сам
+    @Override
+    @Cacheable(cacheNames = CacheConfig.ITEMS, key = "#itemsId + ':' + #version")
+    public ItemDto getById(Long itemsId, long version) {
         Item item = itemStorage.findById(itemsId).orElseThrow(() -> new NotFoundException("Item not found id: " + itemsId));
         ItemDto itemDto = ItemMapper.mapToItemDto(item);
         List<CommentDto> commentDtos = commentStorage.findByItemId(itemsId).stream()
@@ -81,42 +169,36 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public List<ItemDto> getItemsByOwner(Long userId) {
         log.info("Начинается метод getItemsByOwner для пользователя с ID: {}", userId);
-        List<Item> items = itemStorage.findByOwnerId(userId);
-        List<Long> itemIds = items.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
+        // Вещи вместе с последним и следующим бронированием из сводки - одним запросом
+        List<OwnerItemView> rows = itemStorage.findByOwnerIdWithBookings(userId);
+        // Если следующее бронирование уже началось, а планировщик еще не успел пересчитать сводку, пересчитываем сами
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> staleItemIds = rows.stream()
+                .filter(row -> row.getNextBooking() != null && !row.getNextBooking().getStart().isAfter(now))
+                .map(row -> row.getItem().getId())
+                .toList();
+        if (!staleItemIds.isEmpty()) {
+            itemBookingSummaryUpdater.refresh(staleItemIds);
+            rows = itemStorage.findByOwnerIdWithBookings(userId);
+        }
+        List<Long> itemIds = rows.stream()
+                .map(row -> row.getItem().getId())
+                .toList();
 
         // Получаем комментарии
         List<Comment> comments = commentStorage.findAllByItemIdIn(itemIds);
         Map<Long, List<Comment>> commentsByItem = comments.stream()
                 .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
 
-        // Получаем все бронирования за один запрос
-        List<Booking> bookings = bookingStorage.findAllByItemIdIn(itemIds);
-        Map<Long, BookingDto> lastBookings = new HashMap<>();
-        Map<Long, BookingDto> nextBookings = new HashMap<>();
-
-        for (Booking booking : bookings) {
-            BookingDto bookingDto = BookingMapper.mapToBookingDto(booking);
-            Long itemId = booking.getItem().getId();
-
-            // Определяем, является ли это последним или следующим бронированием
-            if (booking.getStart().isBefore(LocalDateTime.now())) {
-                lastBookings.put(itemId, bookingDto);
-            } else {
-                nextBookings.put(itemId, bookingDto);
-            }
-        }
-
         // Преобразуем в ItemDto
-        List<ItemDto> itemDtos = items.stream().map(item -> {
-            ItemDto itemDto = ItemMapper.mapToItemDto(item);
+        List<ItemDto> itemDtos = rows.stream().map(row -> {
+            ItemDto itemDto = ItemMapper.mapToItemDto(row.getItem());
             itemDto.setComments(commentsByItem.getOrDefault(itemDto.getId(), List.of()).stream()
                     .map(CommentMapper::mapToCommentDto)
                     .toList());
 
-            itemDto.setLastBooking(lastBookings.get(itemDto.getId()));
-            itemDto.setNextBooking(nextBookings.get(itemDto.getId()));
+            itemDto.setLastBooking(mapBooking(row.getLastBooking()));
+            itemDto.setNextBooking(mapBooking(row.getNextBooking()));
 
             return itemDto;
         }).toList();
@@ -126,12 +208,52 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> search(String text) {
+    public List<ItemDto> search(String text, Integer from, Integer size) {
+        validatePage(from, size);
         if (text.isBlank()) {
             return new ArrayList<>();
         }
-        return itemStorage.searchByText(text).stream()
-                .map(ItemMapper::mapToItemDto)
+        // Индекс отдает id одной страницы в порядке релевантности, сами вещи читаются одним запросом по первичному ключу
+        return findAllInOrder(itemSearchIndex.search(text, from, size));
+    }
+
+    // Занятость проверяется по индексу подтвержденных бронирований в том же проходе по индексу поиска,
+    // так что страница собирается только из свободных вещей и без проверки каждой вещи запросом в базу
+    @Override
+    public List<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, Integer from, Integer size) {
+        if (!start.isBefore(end)) {
+            throw new ValidationException("Начало периода должно быть раньше конца");
+        }
+        validatePage(from, size);
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+        return findAllInOrder(itemSearchIndex.search(text, from, size, bookingIntervalIndex.freeDuring(start, end)));
+    }
+
+    @Override
+    public List<String> suggest(String prefix, Integer size) {
+        if (size <= 0) {
+            throw new ValidationException("Параметр size должен быть положительным");
+        }
+        if (prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        return itemSuggestIndex.suggest(prefix.strip(), size);
+    }
+
+    // Календарь строится из индекса подтвержденных бронирований. В базу идем только за проверкой существования
+    // вещи, которой еще нет в индексе, чтобы не заводить в нем записи под несуществующие id
+    @Override
+    public List<FreeIntervalDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше конца");
+        }
+        if (!bookingIntervalIndex.isLoaded(itemId) && !itemStorage.existsById(itemId)) {
+            throw new NotFoundException("Item not found id: " + itemId);
+        }
+        return bookingIntervalIndex.freeIntervals(itemId, from, to).stream()
+                .map(interval -> new FreeIntervalDto(interval.getKey(), interval.getValue()))
                 .toList();
     }
 
@@ -144,6 +266,98 @@ public class ItemServiceImpl implements ItemService {
         }
         Comment comment = CommentMapper.mapToComment(requestCommentDto, item, author);
         comment = commentStorage.save(comment);
+        itemVersions.increment(List.of(itemId));
         return CommentMapper.mapToCommentDto(comment);
     }
-}
\ No newline at end of file
+
+    // Запросы порции читаются одним запросом, вещи сохраняются одной транзакцией saveAll.
+    // Затем контекст очищается: при open-in-view сохраненные вещи иначе копились бы в нем до конца загрузки
+    private List<ItemBulkResultDto> saveChunk(Long userId, Map<Integer, ItemBodyDto> chunk) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> requestIds = chunk.values().stream()
+                .map(ItemBodyDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Request> requests = requestIds.isEmpty() ? Map.of() : requestStorage.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(Request::getId, Function.identity()));
+        User owner = userStorage.getReferenceById(userId);
+
+        List<ItemBulkResultDto> results = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        chunk.forEach((index, itemBodyDto) -> {
+            Long requestId = itemBodyDto.getRequestId();
+            if (requestId != null && !requests.containsKey(requestId)) {
+                results.add(ItemBulkResultDto.failed(index, "Request not found id: " + requestId));
+                return;
+            }
+            Item item = ItemMapper.mapToItem(itemBodyDto);
+            item.setOwner(owner);
+            item.setRequest(requestId == null ? null : requests.get(requestId));
+            indexes.add(index);
+            items.add(item);
+        });
+        List<Item> saved = itemStorage.saveAll(items);
+        Set<Long> answeredRequestIds = saved.stream()
+                .filter(item -> item.getRequest() != null)
+                .map(item -> item.getRequest().getId())
+                .collect(Collectors.toSet());
+        if (!answeredRequestIds.isEmpty()) {
+            requestStorage.incrementVersions(answeredRequestIds);
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            Item item = saved.get(i);
+            itemSearchIndex.index(item);
+            itemSuggestIndex.index(item);
+            results.add(ItemBulkResultDto.created(indexes.get(i), item.getId()));
+        }
+        entityManager.clear();
+        return results;
+    }
+
+    // Те же правила, что у ItemBodyDto при создании через gateway
+    private static String validateNewItem(ItemBodyDto itemBodyDto) {
+        if (itemBodyDto == null) {
+            return "Элемент должен быть объектом";
+        }
+        if (itemBodyDto.getName() == null || itemBodyDto.getName().isBlank()) {
+            return "Имя не может быть пустым";
+        }
+        if (itemBodyDto.getDescription() == null || itemBodyDto.getDescription().isBlank()) {
+            return "Описание не может быть пустым";
+        }
+        if (itemBodyDto.getAvailable() == null) {
+            return "Статус не может быть пустым";
+        }
+        return null;
+    }
+
+    // Проверки gateway сервер не видит, а индекс поиска на пустой или отрицательной странице падает
+    private static void validatePage(Integer from, Integer size) {
+        if (from < 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new ValidationException("Параметр size должен быть положительным");
+        }
+    }
+
+    private List<ItemDto> findAllInOrder(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> items = itemStorage.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(ItemMapper::mapToItemDto)
+                .toList();
+    }
+
+    private static BookingDto mapBooking(Booking booking) {
+        return booking == null ? null : BookingMapper.mapToBookingDto(booking);
+    }
+}
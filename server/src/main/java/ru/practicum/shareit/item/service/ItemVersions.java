@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dal.ItemStorage;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Текущие версии карточек вещей в памяти, чтобы повторное чтение карточки из кэша ITEMS и ответ 304
+ * обходились без запроса версии в базу. Версия читается из базы при первом обращении, а после каждого
+ * увеличения запись сбрасывается: сброс дожидается начатой загрузки, поэтому старая версия в кэше не остается.
+ * Плата за это - версии живут в памяти одного экземпляра: изменения в обход сервиса или через другой
+ * экземпляр сервера видны не сразу, а по истечении VERSION_TTL. Несуществующие вещи не запоминаются.
+ * Попадания публикуются в метриках cache.gets{cache=itemVersions}.
+ */
+@Component
+public class ItemVersions {
+    static final String CACHE_NAME = "itemVersions";
+    private static final long MAX_SIZE = 100_000;
+    private static final Duration VERSION_TTL = Duration.ofMinutes(1);
+
+    private final ItemStorage itemStorage;
+    private final Cache<Long, Long> versions;
+
+    public ItemVersions(ItemStorage itemStorage, MeterRegistry meterRegistry) {
+        this.itemStorage = itemStorage;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(VERSION_TTL)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, CACHE_NAME);
+    }
+
+    public Optional<Long> get(Long itemId) {
+        return Optional.ofNullable(versions.get(itemId, id -> itemStorage.findVersionById(id).orElse(null)));
+    }
+
+    // Все изменения карточек вещей проходят здесь: версии растут в базе, затем сбрасываются в памяти
+    public void increment(Collection<Long> itemIds) {
+        itemStorage.incrementVersions(itemIds);
+        versions.invalidateAll(itemIds);
+    }
+
+    // Вызывается после удаления вещей, чтобы их версии перестали отдаваться
+    public void invalidate(Collection<Long> itemIds) {
+        versions.invalidateAll(itemIds);
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.RequestItemDto;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.service.RequestService;
@@ -38,8 +39,12 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public RequestDto getItemRequestById(@PathVariable Long requestId,
-                                         @RequestHeader(USER_ID_HEADER) Long userId) {
+                                         @RequestHeader(USER_ID_HEADER) Long userId,
+                                         WebRequest webRequest) {
         log.info("SERVER Попытка получить Request по id");
+        if (webRequest.checkNotModified("request-" + requestId + "-" + requestService.getVersion(requestId, userId))) {
+            return null;
+        }
         return requestService.getItemRequestById(requestId, userId);
     }
 }
\ No newline at end of file
@@ -1,13 +1,33 @@
 package ru.practicum.shareit.request.dal;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.request.model.Request;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface RequestStorage extends JpaRepository<Request, Long> {
 
     List<Request> findAllByRequesterId(Long userId);
 
     List<Request> findByRequesterIdNotOrderByCreatedDesc(Long requesterId);
+
+    // Версия запроса для ETag - без загрузки запроса и его вещей
+    @Query(value = "SELECT version FROM requests WHERE id = :requestId", nativeQuery = true)
+    Optional<Long> findVersionById(@Param("requestId") Long requestId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE requests SET version = version + 1 WHERE id IN :requestIds", nativeQuery = true)
+    int incrementVersions(@Param("requestIds") Collection<Long> requestIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE requests SET version = version + 1 WHERE requester = :requesterId", nativeQuery = true)
+    int incrementVersionsByRequesterId(@Param("requesterId") Long requesterId);
 }
@@ -13,5 +13,7 @@ public interface RequestService {
 
     List<RequestDto> getOtherUsersItemRequests(Long userId);
 
+    long getVersion(Long requestId, Long userId);
+
     RequestDto getItemRequestById(Long requestId, Long userId);
 }
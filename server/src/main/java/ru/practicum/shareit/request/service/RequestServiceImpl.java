@@ -14,6 +14,7 @@ import ru.practicum.shareit.request.mapper.RequestMapper;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistence;
 
 import java.util.List;
 import java.util.Set;
@@ -25,6 +26,7 @@ public class RequestServiceImpl implements RequestService {
     private final RequestStorage requestStorage;
     private final UserStorage userStorage;
     private final ItemStorage itemStorage;
+    private final UserExistence userExistence;
 
     @Override
     public RequestDto addItemRequest(RequestItemDto requestItemDto, Long userId) {
@@ -37,7 +39,9 @@ public class RequestServiceImpl implements RequestService {
 
     @Override
     public List<RequestDto> getUserItemRequests(Long userId) {
-        userStorage.findById(userId).orElseThrow(() -> new NotFoundException("User not found id: " + userId));
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException("User not found id: " + userId);
+        }
         List<Request> requests = requestStorage.findAllByRequesterId(userId);
         return requests.stream()
                 .map(RequestMapper::mapToRequestDto)
@@ -46,16 +50,28 @@ public class RequestServiceImpl implements RequestService {
 
     @Override
     public List<RequestDto> getOtherUsersItemRequests(Long requesterId) {
-        userStorage.findById(requesterId).orElseThrow(() -> new NotFoundException("User not found id: " + requesterId));
+        if (!userExistence.exists(requesterId)) {
+            throw new NotFoundException("User not found id: " + requesterId);
+        }
         List<Request> requests = requestStorage.findByRequesterIdNotOrderByCreatedDesc(requesterId);
         return requests.stream()
                 .map(RequestMapper::mapToRequestDto)
                 .toList();
     }
 
+    @Override
+    public long getVersion(Long requestId, Long userId) {
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException("User not found id: " + userId);
+        }
+        return requestStorage.findVersionById(requestId).orElseThrow(() -> new NotFoundException("Request not found"));
+    }
+
     @Override
     public RequestDto getItemRequestById(Long requestId, Long userId) {
-        userStorage.findById(userId).orElseThrow(() -> new NotFoundException("User not found id: " + userId));
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException("User not found id: " + userId);
+        }
         Request request = requestStorage.findById(requestId).orElseThrow(() -> new NotFoundException("Request not found"));
         List<Item> items = itemStorage.findByRequestId(requestId);
         Set<ItemDto> itemsDto = items.stream()
@@ -1,10 +1,24 @@
 package ru.practicum.shareit.user.dal;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Optional;
+
 @Repository
 public interface UserStorage extends JpaRepository<User, Long> {
 
-}
\ No newline at end of file
+    // Версия пользователя для ETag - без загрузки самого пользователя
+    @Query(value = "SELECT version FROM users WHERE id = :userId", nativeQuery = true)
+    Optional<Long> findVersionById(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET version = version + 1 WHERE id = :userId", nativeQuery = true)
+    int incrementVersion(@Param("userId") Long userId);
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.dal.UserStorage;
+
+import java.time.Duration;
+
+/**
+ * Проверка существования пользователя из заголовка X-Sharer-User-Id без загрузки сущности.
+ * Ответ базы запоминается в ограниченном кэше: известные id хранятся до вытеснения, неизвестные -
+ * недолго, на случай если пользователь появился в базе в обход сервиса. При создании и удалении
+ * пользователя запись сбрасывается. Каждое попадание в кэш - сэкономленный запрос к базе,
+ * их число публикуется в метриках cache.gets{cache=userExistence}.
+ */
+@Component
+public class UserExistence {
+    static final String CACHE_NAME = "userExistence";
+    private static final long MAX_SIZE = 100_000;
+    private static final Duration UNKNOWN_TTL = Duration.ofMinutes(1);
+
+    private final UserStorage userStorage;
+    private final Cache<Long, Boolean> existence;
+
+    public UserExistence(UserStorage userStorage, MeterRegistry meterRegistry) {
+        this.userStorage = userStorage;
+        this.existence = Caffeine.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfter(new UnknownUserExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, existence, CACHE_NAME);
+    }
+
+    public boolean exists(Long userId) {
+        return existence.get(userId, userStorage::existsById);
+    }
+
+    // Вызывается после создания и удаления пользователя
+    public void invalidate(Long userId) {
+        existence.invalidate(userId);
+    }
+
+    // Срок жизни задается только для отрицательных ответов, известные id живут до вытеснения по размеру
+    private static final class UnknownUserExpiry implements Expiry<Long, Boolean> {
+        @Override
+        public long expireAfterCreate(Long userId, Boolean exists, long currentTime) {
+            return exists ? Long.MAX_VALUE : UNKNOWN_TTL.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Boolean exists, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, exists, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Boolean exists, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
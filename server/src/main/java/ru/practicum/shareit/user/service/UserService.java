@@ -12,5 +12,7 @@ public interface UserService {
 
     void deleteUser(long userId);
 
+    long getVersion(long userId);
+
     UserDto getUserById(long userId);
 }
@@ -2,41 +2,90 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dal.ItemSearchIndex;
+import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.dal.ItemSuggestIndex;
+import ru.practicum.shareit.item.service.ItemVersions;
+import ru.practicum.shareit.request.dal.RequestStorage;
 import ru.practicum.shareit.user.dto.RequestUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dal.UserStorage;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserStorage userStorage;
+    private final UserExistence userExistence;
+    private final ItemStorage itemStorage;
+    private final RequestStorage requestStorage;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemVersions itemVersions;
 
 
     @Override
     public UserDto add(RequestUserDto requestUserDto) {
         User user = UserMapper.mapToUser(requestUserDto);
         user = userStorage.save(user);
+        userExistence.invalidate(user.getId());
         return UserMapper.mapToUserDto(user);
     }
 
+    // Пользователь попадает в карточки вещей (автор комментария, автор запроса) и своих запросов,
+    // поэтому вместе с его версией растут и их
     @Override
     public UserDto updateUser(long userId, RequestUserDto requestUserDto) {
         Optional<User> userOptional = userStorage.findById(userId);
         User existingUser = userOptional.orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
         UserMapper.updateUserFromRequest(existingUser, requestUserDto);
         existingUser = userStorage.save(existingUser);
+        userStorage.incrementVersion(userId);
+        List<Long> itemIds = itemStorage.findIdsShowingUser(userId);
+        if (!itemIds.isEmpty()) {
+            itemVersions.increment(itemIds);
+        }
+        requestStorage.incrementVersionsByRequesterId(userId);
         return UserMapper.mapToUserDto(existingUser);
     }
 
+    // Вместе с пользователем каскадно удаляются его вещи и комментарии: они пропадают из карточек
+    // чужих вещей и запросов, чьи версии собираются до удаления и растут после него.
+    // Удаленные вещи убираются и из индексов поиска, подсказок и бронирований и из версий в памяти,
+    // которые база сама не обновит
     @Override
     public void deleteUser(long userId) {
         userStorage.findById(userId).orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
+        List<Long> deletedItemIds = itemStorage.findIdsDeletedWithUser(userId);
+        List<Long> itemIds = itemStorage.findIdsShowingUser(userId);
+        List<Long> requestIds = itemStorage.findRequestIdsByOwnerId(userId);
         userStorage.deleteById(userId);
+        userExistence.invalidate(userId);
+        for (Long itemId : deletedItemIds) {
+            itemSearchIndex.remove(itemId);
+            itemSuggestIndex.remove(itemId);
+            bookingIntervalIndex.remove(itemId);
+        }
+        itemVersions.invalidate(deletedItemIds);
+        if (!itemIds.isEmpty()) {
+            itemVersions.increment(itemIds);
+        }
+        if (!requestIds.isEmpty()) {
+            requestStorage.incrementVersions(requestIds);
+        }
+    }
+
+    @Override
+    public long getVersion(long userId) {
+        return userStorage.findVersionById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
     }
 
     @Override
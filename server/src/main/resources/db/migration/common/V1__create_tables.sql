@@ -1,9 +1,3 @@
-DROP TABLE IF EXISTS comments;
-DROP TABLE IF EXISTS bookings;
-DROP TABLE IF EXISTS items;
-DROP TABLE IF EXISTS requests;
-DROP TABLE IF EXISTS users;
-
 CREATE TABLE IF NOT EXISTS users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name VARCHAR(255) NOT NULL,
@@ -50,4 +44,4 @@ CREATE TABLE IF NOT EXISTS comments (
   created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   CONSTRAINT fk_comment_item FOREIGN KEY (item) REFERENCES items(id) ON DELETE CASCADE,
   CONSTRAINT fk_comment_author FOREIGN KEY (author) REFERENCES users(id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
@@ -0,0 +1,18 @@
+-- Бронирования автора по состояниям: WHERE booker = ? [AND status = ?] ORDER BY start_date DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker, status, start_date, id);
+
+-- Бронирования вещи: выборки владельца после соединения с items, findByItemIdAndStatus,
+-- findAllByItemIdIn и проверка завершенного бронирования перед комментарием
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item, status, start_date, end_date);
+
+-- Вещи владельца и вещи, созданные в ответ на запрос
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner, id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request);
+
+-- Комментарии к вещи
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item, created);
+
+-- Запросы автора и чужие запросы, отсортированные по дате создания
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester, created);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created);
@@ -0,0 +1,28 @@
+-- Последнее начавшееся и ближайшее будущее подтвержденные бронирования вещи для списка вещей владельца.
+-- next_start - момент, после которого строка устаревает: ближайшее бронирование становится последним
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+  item BIGINT PRIMARY KEY,
+  last_booking BIGINT,
+  next_booking BIGINT,
+  next_start TIMESTAMP WITHOUT TIME ZONE,
+  CONSTRAINT fk_summary_item FOREIGN KEY (item) REFERENCES items(id) ON DELETE CASCADE,
+  CONSTRAINT fk_summary_last_booking FOREIGN KEY (last_booking) REFERENCES bookings(id) ON DELETE SET NULL,
+  CONSTRAINT fk_summary_next_booking FOREIGN KEY (next_booking) REFERENCES bookings(id) ON DELETE SET NULL
+);
+
+-- Устаревшие строки для планировщика: WHERE next_start <= ?
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_next_start ON item_booking_summary (next_start);
+
+-- Заполнение по уже накопленным бронированиям
+INSERT INTO item_booking_summary (item, last_booking, next_booking, next_start)
+SELECT i.id,
+  (SELECT b.id FROM bookings b
+   WHERE b.item = i.id AND b.status = 'APPROVED' AND b.start_date <= LOCALTIMESTAMP
+   ORDER BY b.start_date DESC LIMIT 1),
+  (SELECT b.id FROM bookings b
+   WHERE b.item = i.id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP
+   ORDER BY b.start_date LIMIT 1),
+  (SELECT MIN(b.start_date) FROM bookings b
+   WHERE b.item = i.id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP)
+FROM items i
+WHERE EXISTS (SELECT 1 FROM bookings b WHERE b.item = i.id AND b.status = 'APPROVED');
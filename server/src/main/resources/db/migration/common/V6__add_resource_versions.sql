@@ -0,0 +1,8 @@
+-- Версии карточек вещи, пользователя и запроса для ETag: растут при каждом изменении данных,
+-- попадающих в ответ GET по id, поэтому 304 решается без загрузки самой карточки
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Вещи с комментариями пользователя - их карточки меняются вместе с его именем
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments (author, item);
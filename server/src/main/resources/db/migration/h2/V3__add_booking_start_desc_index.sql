@@ -0,0 +1,3 @@
+-- Последнее начавшееся бронирование вещи для списка вещей владельца: ORDER BY start_date DESC LIMIT 1.
+-- PostgreSQL читает idx_bookings_item_status_start с конца, а H2 по индексу в обратную сторону не ходит
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start_desc ON bookings (item, status, start_date DESC);
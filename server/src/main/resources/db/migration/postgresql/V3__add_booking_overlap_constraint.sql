@@ -0,0 +1,7 @@
+-- Подтвержденные бронирования одной вещи не должны пересекаться по времени (границы включительные)
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD CONSTRAINT excl_booking_approved_overlap EXCLUDE USING gist (
+  item WITH =,
+  tsrange(start_date, end_date, '[]') WITH &&
+) WHERE (status = 'APPROVED');
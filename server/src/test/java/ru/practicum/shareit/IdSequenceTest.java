@@ -0,0 +1,54 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.user.dal.UserStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Идентификаторы выдаются пулами из последовательностей: сущности одного пула получают идущие подряд id
+ * без обращения к базе, а вставки в обход Hibernate не пересекаются с уже выданными пулами.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdSequenceTest {
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void saveAll_shouldAssignConsecutiveIdsFromPool() {
+        String timestamp = String.valueOf(System.nanoTime());
+
+        List<User> users = userStorage.saveAll(List.of(
+                new User(null, "First", "first_" + timestamp + "@example.com"),
+                new User(null, "Second", "second_" + timestamp + "@example.com"),
+                new User(null, "Third", "third_" + timestamp + "@example.com")));
+
+        Long first = users.getFirst().getId();
+        assertThat(users).extracting(User::getId).containsExactly(first, first + 1, first + 2);
+    }
+
+    @Test
+    void insertWithoutId_shouldNotCollideWithPooledIds() {
+        String timestamp = String.valueOf(System.nanoTime());
+        User before = userStorage.save(new User(null, "Before", "before_" + timestamp + "@example.com"));
+
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES (?, ?)", "Jdbc", "jdbc_" + timestamp + "@example.com");
+        User after = userStorage.save(new User(null, "After", "after_" + timestamp + "@example.com"));
+
+        Long jdbcId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class,
+                "jdbc_" + timestamp + "@example.com");
+        assertThat(List.of(before.getId(), jdbcId, after.getId())).doesNotHaveDuplicates();
+    }
+}
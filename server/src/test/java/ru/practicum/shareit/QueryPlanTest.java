@@ -0,0 +1,230 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.dal.ItemBookingSummaryStorage;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.item.comment.dal.CommentStorage;
+import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dal.RequestStorage;
+import ru.practicum.shareit.user.dal.UserStorage;
+import ru.practicum.shareit.user.model.User;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что запросы репозиториев обслуживаются индексами из миграций:
+ * SQL каждого вызова перехватывается, прогоняется через EXPLAIN в H2 и не должен содержать полного сканирования таблицы.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$RecordingStatementInspector")
+@ActiveProfiles("test")
+class QueryPlanTest {
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private CommentStorage commentStorage;
+
+    @Autowired
+    private RequestStorage requestStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ItemBookingSummaryStorage itemBookingSummaryStorage;
+
+    @Autowired
+    private ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final ScrollPosition first = ScrollPosition.keyset();
+    private final ScrollPosition next = ScrollPosition.forward(Map.of("start", now, "id", 1L));
+    private final Limit limit = Limit.of(10);
+
+    @BeforeEach
+    void setUp() {
+        STATEMENTS.clear();
+    }
+
+    @Test
+    void bookingStorageQueriesShouldUseIndexes() throws SQLException {
+        for (ScrollPosition position : List.of(first, next)) {
+            bookingStorage.findByBookerIdAndStatusAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                    1L, Status.APPROVED, now, now, position, limit);
+            bookingStorage.findByBookerIdAndStatusOrderByStartDescIdDesc(1L, Status.WAITING, position, limit);
+            bookingStorage.findByBookerIdAndStatusAndEndBeforeOrderByStartDescIdDesc(1L, Status.APPROVED, now, position, limit);
+            bookingStorage.findByBookerIdAndStartAfterOrderByStartDescIdDesc(1L, now, position, limit);
+            bookingStorage.findByBookerIdOrderByStartDescIdDesc(1L, position, limit);
+            bookingStorage.findByItemOwnerIdAndStatusAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                    1L, Status.APPROVED, now, now, position, limit);
+            bookingStorage.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(1L, Status.WAITING, position, limit);
+            bookingStorage.findByItemOwnerIdAndStatusAndEndBeforeOrderByStartDescIdDesc(1L, Status.APPROVED, now, position, limit);
+            bookingStorage.findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(1L, now, position, limit);
+            bookingStorage.findByItemOwnerIdOrderByStartDescIdDesc(1L, position, limit);
+        }
+        bookingStorage.findByIdAndBookerId(1L, 1L);
+        bookingStorage.findByIdAndItemOwnerId(1L, 1L);
+        bookingStorage.findByItemIdAndStatus(1L, Status.APPROVED);
+        bookingStorage.findByItemIdInAndStatus(List.of(1L, 2L), Status.APPROVED);
+        bookingStorage.updateWaitingStatus(1L, Status.APPROVED);
+        bookingStorage.findAllWithItemByIdIn(List.of(1L, 2L));
+        bookingStorage.existsPastBookingsByBookerIdAndItemId(1L, 1L, now);
+        bookingStorage.findFirstByItemIdAndStatusAndStartLessThanEqualOrderByStartDesc(1L, Status.APPROVED, now);
+        bookingStorage.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(1L, Status.APPROVED, now);
+        itemBookingSummaryStorage.findByNextStartLessThanEqual(now);
+
+        assertNoTableScans();
+    }
+
+    // findByAvailableTrue читает все доступные вещи один раз для заполнения поискового индекса
+    @Test
+    void itemStorageQueriesShouldUseIndexes() throws SQLException {
+        itemStorage.findByOwnerId(1L);
+        itemStorage.findByOwnerIdWithBookings(1L);
+        itemStorage.findByRequestId(1L);
+        itemStorage.findVersionById(1L);
+        itemStorage.incrementVersions(List.of(1L, 2L));
+        itemStorage.findIdsShowingUser(1L);
+        itemStorage.findIdsDeletedWithUser(1L);
+        itemStorage.findRequestIdsByOwnerId(1L);
+
+        assertNoTableScans();
+    }
+
+    // findByRequesterIdNotOrderByCreatedDesc выбирает почти всю таблицу, индекс по created нужен ему только для сортировки
+    @Test
+    void commentAndRequestStorageQueriesShouldUseIndexes() throws SQLException {
+        commentStorage.findByItemId(1L);
+        commentStorage.findAllByItemIdIn(List.of(1L, 2L));
+        requestStorage.findAllByRequesterId(1L);
+        requestStorage.findVersionById(1L);
+        requestStorage.incrementVersions(List.of(1L, 2L));
+        requestStorage.incrementVersionsByRequesterId(1L);
+        userStorage.findVersionById(1L);
+        userStorage.incrementVersion(1L);
+
+        assertNoTableScans();
+    }
+
+    // Бенчмарк списка вещей владельца по числу прочитанных строк: EXPLAIN ANALYZE в H2 выполняет запрос и пишет,
+    // сколько строк прочитано из каждой таблицы. Сотня прошлых бронирований не должна добавить ни одного чтения,
+    // потому что последнее и следующее бронирования берутся из сводки
+    @Test
+    void ownerDashboardQueryShouldNotDependOnBookingHistorySize() throws SQLException {
+        String timestamp = String.valueOf(System.nanoTime());
+        User owner = userStorage.save(new User(null, "Owner", "owner_" + timestamp + "@example.com"));
+        User booker = userStorage.save(new User(null, "Booker", "booker_" + timestamp + "@example.com"));
+        Item item = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        bookingStorage.save(new Booking(null, now.minusHours(1), now.plusHours(1), item, booker, Status.APPROVED));
+        bookingStorage.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker, Status.APPROVED));
+        itemBookingSummaryUpdater.refresh(item.getId());
+        STATEMENTS.clear();
+        itemStorage.findByOwnerIdWithBookings(owner.getId());
+        String sql = STATEMENTS.getLast();
+        long shortHistory = rowsRead(sql, owner.getId());
+
+        List<Booking> history = new ArrayList<>();
+        for (int day = 1; day <= 100; day++) {
+            history.add(new Booking(null, now.minusDays(day), now.minusDays(day).plusHours(1), item, booker, Status.APPROVED));
+        }
+        bookingStorage.saveAll(history);
+        itemBookingSummaryUpdater.refresh(item.getId());
+        long longHistory = rowsRead(sql, owner.getId());
+
+        assertThat(longHistory).isEqualTo(shortHistory);
+    }
+
+    // Суммирует scanCount по всем таблицам плана; идентификатор владельца и текущее время подставляются по типу параметра
+    private long rowsRead(String sql, Long ownerId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN ANALYZE " + sql)) {
+            ParameterMetaData metaData = statement.getParameterMetaData();
+            for (int i = 1; i <= metaData.getParameterCount(); i++) {
+                if (metaData.getParameterType(i) == Types.BIGINT) {
+                    statement.setLong(i, ownerId);
+                } else {
+                    statement.setObject(i, now);
+                }
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                Matcher matcher = SCAN_COUNT.matcher(resultSet.getString(1));
+                long rows = 0;
+                while (matcher.find()) {
+                    rows += Long.parseLong(matcher.group(1));
+                }
+                assertThat(rows).isPositive();
+                return rows;
+            }
+        }
+    }
+
+    private void assertNoTableScans() throws SQLException {
+        assertThat(STATEMENTS).isNotEmpty();
+        List<String> plans = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sql : STATEMENTS) {
+                plans.add(explain(connection, sql));
+            }
+        }
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).doesNotContainIgnoringCase("tableScan"));
+    }
+
+    // Значения параметров на выбор индекса в H2 не влияют, поэтому все они подставляются как NULL
+    private static String explain(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dal.RequestStorage;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.dal.UserStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResourceEtagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @SpyBean
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private RequestStorage requestStorage;
+
+    @Test
+    void getUser_shouldAnswerNotModifiedWhileUserIsUnchanged() throws Exception {
+        User user = userStorage.save(newUser());
+
+        String etag = mockMvc.perform(get("/users/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/users/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getUser_shouldReturnNewEtagAfterUpdate() throws Exception {
+        User user = userStorage.save(newUser());
+        String etag = mockMvc.perform(get("/users/{userId}", user.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/users/{userId}", user.getId())
+                        .contentType("application/json")
+                        .content("{\"name\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+
+        String newEtag = mockMvc.perform(get("/users/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+    }
+
+    @Test
+    void getItem_shouldAnswerNotModifiedWithoutLoadingItem() throws Exception {
+        User owner = userStorage.save(newUser());
+        Item item = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        String etag = mockMvc.perform(get("/items/{itemId}", item.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(itemStorage);
+
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        verify(itemStorage, never()).findById(anyLong());
+    }
+
+    @Test
+    void getItem_shouldServeCachedCardWithoutQueries() throws Exception {
+        User owner = userStorage.save(newUser());
+        Item item = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        mockMvc.perform(get("/items/{itemId}", item.getId()))
+                .andExpect(status().isOk());
+        clearInvocations(itemStorage);
+
+        mockMvc.perform(get("/items/{itemId}", item.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Ударная"));
+
+        verify(itemStorage, never()).findVersionById(anyLong());
+        verify(itemStorage, never()).findById(anyLong());
+    }
+
+    @Test
+    void getItem_shouldReturnNewEtagAfterUpdate() throws Exception {
+        User owner = userStorage.save(newUser());
+        Item item = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        String etag = mockMvc.perform(get("/items/{itemId}", item.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType("application/json")
+                        .content("{\"name\":\"Перфоратор\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void getRequest_shouldReturnNewEtagWhenItemIsAddedForIt() throws Exception {
+        User requester = userStorage.save(newUser());
+        User owner = userStorage.save(newUser());
+        Request request = requestStorage.save(new Request(null, "Нужна дрель", requester, LocalDateTime.now()));
+        String etag = mockMvc.perform(get("/requests/{requestId}", request.getId())
+                        .header("X-Sharer-User-Id", requester.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType("application/json")
+                        .content("{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true,\"requestId\":"
+                                + request.getId() + "}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/requests/{requestId}", request.getId())
+                        .header("X-Sharer-User-Id", requester.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].description").value("Ударная"));
+    }
+
+    @Test
+    void lists_shouldNotCarryEtag() throws Exception {
+        User owner = userStorage.save(newUser());
+
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mockMvc.perform(get("/requests").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    private static User newUser() {
+        return new User(null, "User", "user_" + System.nanoTime() + "@example.com");
+    }
+}
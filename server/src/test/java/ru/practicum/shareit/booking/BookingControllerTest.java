@@ -7,10 +7,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -19,7 +22,9 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
@@ -27,6 +32,7 @@ import static org.mockito.Mockito.times;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class BookingControllerTest {
@@ -41,15 +47,14 @@ public class BookingControllerTest {
     @InjectMocks
     private BookingController bookingController;
 
-    private ObjectMapper objectMapper;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders.standaloneSetup(bookingController).build();
 
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
         item = new ItemDto(1L, "name", "test", true, null, null, null, null);
     }
 
@@ -103,11 +108,30 @@ public class BookingControllerTest {
         verify(bookingService, times(1)).approveBooking(bookingId, true, 1L);
     }
 
+    @Test
+    void approveBookings() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false));
+        List<BookingDto> bookings = List.of(
+                new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.APPROVED),
+                new BookingDto(2L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.REJECTED));
+
+        when(bookingService.approveBookings(decisions, 1L)).thenReturn(bookings);
+
+        mockMvc.perform(patch("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        verify(bookingService, times(1)).approveBookings(decisions, 1L);
+    }
+
     @Test
     void getUserBookings() throws Exception {
         List<BookingDto> bookings = Collections.singletonList(new BookingDto(/* инициализация */));
 
-        when(bookingService.getUserBookings(1L, State.ALL)).thenReturn(bookings);
+        when(bookingService.getUserBookings(1L, State.ALL, null, null)).thenReturn(bookings);
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -115,14 +139,14 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        verify(bookingService, times(1)).getUserBookings(1L, State.ALL);
+        verify(bookingService, times(1)).getUserBookings(1L, State.ALL, null, null);
     }
 
     @Test
     void getOwnerBookings() throws Exception {
         List<BookingDto> bookings = Collections.singletonList(new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.WAITING));
 
-        when(bookingService.getOwnerBookings(1L, State.ALL)).thenReturn(bookings);
+        when(bookingService.getOwnerBookings(1L, State.ALL, null, null)).thenReturn(bookings);
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -130,7 +154,7 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        verify(bookingService, times(1)).getOwnerBookings(1L, State.ALL);
+        verify(bookingService, times(1)).getOwnerBookings(1L, State.ALL, null, null);
     }
 
     @Test
@@ -145,4 +169,33 @@ public class BookingControllerTest {
 
         verify(bookingService, times(1)).getAllBookings();
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamAllBookings() throws Exception {
+        BookingDto first = new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.WAITING);
+        BookingDto second = new BookingDto(2L, LocalDateTime.now(), LocalDateTime.now().plusSeconds(10), item, null, Status.APPROVED);
+
+        doAnswer(invocation -> {
+            Consumer<BookingDto> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(bookingService).streamAllBookings(any());
+
+        MvcResult result = mockMvc.perform(get("/bookings/all")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], BookingDto.class).getId());
+        assertEquals(2L, objectMapper.readValue(lines[1], BookingDto.class).getId());
+        verify(bookingService, never()).getAllBookings();
+    }
+}
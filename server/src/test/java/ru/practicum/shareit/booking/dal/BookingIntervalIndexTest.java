@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking.dal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dal.CandidateFilter;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingStorage bookingStorage;
+
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private final Item item = new Item(1L, null, "Item", "Description", true, null);
+
+    @Test
+    void hasOverlap_shouldLoadItemOnceAndDetectOverlaps() {
+        when(bookingStorage.findByItemIdAndStatus(1L, Status.APPROVED)).thenReturn(List.of(
+                booking(base, base.plusHours(2)),
+                booking(base.plusHours(5), base.plusHours(6))));
+
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.plusHours(1), base.plusHours(3)));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.minusHours(1), base));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.plusHours(6), base.plusHours(7)));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.minusHours(1), base.plusHours(10)));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base.plusHours(3), base.plusHours(4)));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base.plusHours(7), base.plusHours(8)));
+
+        verify(bookingStorage, times(1)).findByItemIdAndStatus(1L, Status.APPROVED);
+    }
+
+    @Test
+    void addApproved_shouldMergeIntervalsOfLoadedItem() {
+        when(bookingStorage.findByItemIdAndStatus(1L, Status.APPROVED)).thenReturn(List.of(
+                booking(base, base.plusHours(1)),
+                booking(base.plusHours(4), base.plusHours(5))));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base.plusHours(2), base.plusHours(3)));
+
+        bookingIntervalIndex.addApproved(booking(base.plusMinutes(30), base.plusHours(4)));
+
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.plusHours(2), base.plusHours(3)));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.plusMinutes(290), base.plusHours(6)));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base.plusHours(6), base.plusHours(7)));
+    }
+
+    @Test
+    void freeIntervals_shouldReturnGapsBetweenBookingsClippedToPeriod() {
+        when(bookingStorage.findByItemIdAndStatus(1L, Status.APPROVED)).thenReturn(List.of(
+                booking(base, base.plusHours(2)),
+                booking(base.plusHours(5), base.plusHours(6)),
+                booking(base.plusHours(10), base.plusHours(12))));
+
+        assertEquals(List.of(
+                Map.entry(base.plusHours(2), base.plusHours(5)),
+                Map.entry(base.plusHours(6), base.plusHours(10))),
+                bookingIntervalIndex.freeIntervals(1L, base.plusHours(1), base.plusHours(11)));
+        assertEquals(List.of(Map.entry(base.minusHours(3), base)),
+                bookingIntervalIndex.freeIntervals(1L, base.minusHours(3), base.plusHours(1)));
+        assertEquals(List.of(), bookingIntervalIndex.freeIntervals(1L, base.plusMinutes(30), base.plusHours(1)));
+
+        bookingIntervalIndex.addApproved(booking(base.plusHours(6), base.plusHours(8)));
+
+        assertEquals(List.of(Map.entry(base.plusHours(8), base.plusHours(10))),
+                bookingIntervalIndex.freeIntervals(1L, base.plusHours(6), base.plusHours(11)));
+        verify(bookingStorage, times(1)).findByItemIdAndStatus(1L, Status.APPROVED);
+    }
+
+    @Test
+    void freeDuring_shouldLoadCandidatesWithOneQuery() {
+        Item other = new Item(2L, null, "Other", "Description", true, null);
+        when(bookingStorage.findByItemIdInAndStatus(List.of(1L, 2L), Status.APPROVED)).thenReturn(List.of(
+                booking(base, base.plusHours(2)),
+                new Booking(null, base.plusHours(5), base.plusHours(6), other, null, Status.APPROVED)));
+        CandidateFilter free = bookingIntervalIndex.freeDuring(base.plusHours(1), base.plusHours(3));
+
+        free.prepare(List.of(1L, 2L));
+
+        assertFalse(free.accept(1L));
+        assertTrue(free.accept(2L));
+        assertFalse(bookingIntervalIndex.freeDuring(base.plusHours(4), base.plusHours(5)).accept(2L));
+        verify(bookingStorage, never()).findByItemIdAndStatus(any(), any());
+    }
+
+    @Test
+    void freeDuring_shouldSkipOnlyItemApprovedDuringQuery() {
+        when(bookingStorage.findByItemIdInAndStatus(List.of(1L, 2L), Status.APPROVED)).thenAnswer(invocation -> {
+            // Подтверждение пришло, пока шел запрос, и пропущено индексом: вещь еще не загружена
+            bookingIntervalIndex.addApproved(booking(base, base.plusHours(2)));
+            return List.of();
+        });
+        when(bookingStorage.findByItemIdAndStatus(1L, Status.APPROVED)).thenReturn(List.of(booking(base, base.plusHours(2))));
+        CandidateFilter free = bookingIntervalIndex.freeDuring(base.plusHours(1), base.plusHours(3));
+
+        free.prepare(List.of(1L, 2L));
+
+        assertFalse(bookingIntervalIndex.isLoaded(1L));
+        assertTrue(bookingIntervalIndex.isLoaded(2L));
+        assertFalse(free.accept(1L));
+        assertTrue(free.accept(2L));
+        verify(bookingStorage, never()).findByItemIdAndStatus(2L, Status.APPROVED);
+    }
+
+    @Test
+    void freeDuring_shouldKeepLoadedItem_WhenItWasApprovedBeforeQuery() {
+        bookingIntervalIndex.addApproved(booking(base, base.plusHours(2)));
+        when(bookingStorage.findByItemIdInAndStatus(List.of(1L), Status.APPROVED))
+                .thenReturn(List.of(booking(base, base.plusHours(2))));
+        CandidateFilter free = bookingIntervalIndex.freeDuring(base.plusHours(1), base.plusHours(3));
+
+        free.prepare(List.of(1L));
+
+        assertTrue(bookingIntervalIndex.isLoaded(1L));
+        assertFalse(free.accept(1L));
+        verify(bookingStorage, never()).findByItemIdAndStatus(any(), any());
+    }
+
+    @Test
+    void addApproved_shouldSkipItemThatIsNotLoaded() {
+        bookingIntervalIndex.addApproved(booking(base, base.plusHours(1)));
+
+        verifyNoInteractions(bookingStorage);
+    }
+
+    private Booking booking(LocalDateTime start, LocalDateTime end) {
+        return new Booking(null, start, end, item, null, Status.APPROVED);
+    }
+}
@@ -11,8 +11,10 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.BookingTimeException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dal.ItemStorage;
 import ru.practicum.shareit.item.model.Item;
@@ -20,6 +22,8 @@ import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -70,18 +74,35 @@ public class BookingServiceImplIntegrationTest {
     @Test
     @Rollback
     public void testGetUserBookings() {
-        List<BookingDto> bookings = bookingService.getUserBookings(booker.getId(), State.ALL);
+        List<BookingDto> bookings = bookingService.getUserBookings(booker.getId(), State.ALL, null, null);
         Long id = bookings.getFirst().getItem().getId();
 
         assertThat(bookings).isNotEmpty();
         assertThat(id.equals(item.getId()));
     }
 
+    @Test
+    @Rollback
+    public void testGetUserBookings_KeysetPages() {
+        // Курсор читается из контекста теста, поэтому время без наносекунд, как в базе
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking future = new Booking(null, now.plusDays(1), now.plusDays(2), item, booker, Status.WAITING);
+        Booking later = new Booking(null, now.plusDays(3), now.plusDays(4), item, booker, Status.WAITING);
+        bookingStorage.save(future);
+        bookingStorage.save(later);
+
+        List<BookingDto> firstPage = bookingService.getUserBookings(booker.getId(), State.ALL, null, 2);
+        List<BookingDto> secondPage = bookingService.getUserBookings(booker.getId(), State.ALL, firstPage.getLast().getId(), 2);
+
+        assertThat(firstPage).extracting(BookingDto::getId).containsExactly(later.getId(), future.getId());
+        assertThat(secondPage).extracting(BookingDto::getId).containsExactly(booking.getId());
+    }
+
     @Test
     @Rollback
     public void testGetOwnerBookings() {
 
-        List<BookingDto> bookings = bookingService.getOwnerBookings(owner.getId(), State.ALL);
+        List<BookingDto> bookings = bookingService.getOwnerBookings(owner.getId(), State.ALL, null, null);
         Long id = bookings.getFirst().getItem().getId();
 
         assertThat(bookings).isNotEmpty();
@@ -99,13 +120,27 @@ public class BookingServiceImplIntegrationTest {
         assertThat(allBookings).hasSize(2);
     }
 
+    @Test
+    @Rollback
+    public void testStreamAllBookings() {
+        Booking booking2 = new Booking(null, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(2), item, booker, Status.WAITING);
+        bookingStorage.save(booking2);
+
+        List<BookingDto> exported = new ArrayList<>();
+        bookingService.streamAllBookings(exported::add);
+
+        assertThat(exported).extracting(BookingDto::getId).containsExactly(booking.getId(), booking2.getId());
+        assertThat(exported.get(1).getItem().getId()).isEqualTo(item.getId());
+        assertThat(exported.get(1).getBooker().getId()).isEqualTo(booker.getId());
+    }
+
     @Test
     @Rollback
     public void testGetUserBookings_UserNotFound() {
         Long nonExistentUserId = 999L;
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
-            bookingService.getUserBookings(nonExistentUserId, State.ALL);
+            bookingService.getUserBookings(nonExistentUserId, State.ALL, null, null);
         });
 
         assertThat(exception.getMessage()).isEqualTo("User not found");
@@ -118,9 +153,30 @@ public class BookingServiceImplIntegrationTest {
         userStorage.save(userWithoutItems);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
-            bookingService.getOwnerBookings(userWithoutItems.getId(), State.ALL);
+            bookingService.getOwnerBookings(userWithoutItems.getId(), State.ALL, null, null);
         });
 
         assertThat(exception.getMessage()).isEqualTo("У данного пользователя нет предметов");
     }
-}
\ No newline at end of file
+
+    @Test
+    @Rollback
+    public void testApproveBookings() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = bookingStorage.save(new Booking(null, start, start.plusHours(2), item, booker, Status.WAITING));
+        Booking overlapping = bookingStorage.save(new Booking(null, start.plusHours(1), start.plusHours(3), item, booker, Status.WAITING));
+        Booking later = bookingStorage.save(new Booking(null, start.plusDays(1), start.plusDays(2), item, booker, Status.WAITING));
+
+        assertThrows(BookingTimeException.class, () -> bookingService.approveBookings(List.of(
+                new BookingDecisionDto(first.getId(), true),
+                new BookingDecisionDto(overlapping.getId(), true)), owner.getId()));
+        List<BookingDto> decided = bookingService.approveBookings(List.of(
+                new BookingDecisionDto(first.getId(), true),
+                new BookingDecisionDto(overlapping.getId(), false),
+                new BookingDecisionDto(later.getId(), true)), owner.getId());
+
+        assertThat(decided).extracting(BookingDto::getStatus)
+                .containsExactly(Status.APPROVED, Status.REJECTED, Status.APPROVED);
+        assertThat(bookingService.getOwnerBookings(owner.getId(), State.WAITING, null, null)).isEmpty();
+    }
+}
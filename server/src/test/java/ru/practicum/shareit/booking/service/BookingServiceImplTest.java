@@ -1,14 +1,24 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -18,11 +28,17 @@ import ru.practicum.shareit.item.dal.ItemStorage;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistence;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -40,6 +56,24 @@ class BookingServiceImplTest {
     @Mock
     private ItemStorage itemStorage;
 
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Spy
+    private BookingLocks bookingLocks = new BookingLocks();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+
+    @Mock
+    private UserExistence userExistence;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -61,7 +95,7 @@ class BookingServiceImplTest {
 
         when(userStorage.findById(userId)).thenReturn(Optional.of(booker));
         when(itemStorage.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingStorage.timeCrossingCheck(itemId, start, end)).thenReturn(false);
+        when(bookingIntervalIndex.hasOverlap(itemId, start, end)).thenReturn(false);
         when(bookingStorage.save(any(Booking.class))).thenReturn(savedBooking);
 
         BookingDto result = bookingService.addBooking(request, userId);
@@ -73,7 +107,7 @@ class BookingServiceImplTest {
 
         verify(userStorage).findById(userId);
         verify(itemStorage).findById(itemId);
-        verify(bookingStorage).timeCrossingCheck(itemId, start, end);
+        verify(bookingIntervalIndex).hasOverlap(itemId, start, end);
         verify(bookingStorage).save(any(Booking.class));
     }
 
@@ -145,7 +179,7 @@ class BookingServiceImplTest {
 
         when(userStorage.findById(userId)).thenReturn(Optional.of(booker));
         when(itemStorage.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingStorage.timeCrossingCheck(itemId, start, end)).thenReturn(true);
+        when(bookingIntervalIndex.hasOverlap(itemId, start, end)).thenReturn(true);
 
         assertThrows(BookingTimeException.class, () -> bookingService.addBooking(request, userId));
     }
@@ -161,7 +195,7 @@ class BookingServiceImplTest {
         Item item = new Item(1L, owner, "Item", "Description", true, null);
         Booking booking = new Booking(bookingId, start, end, item, booker, Status.WAITING);
 
-        when(userStorage.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(userExistence.exists(bookerId)).thenReturn(true);
         when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
 
         BookingDto result = bookingService.getBookingById(bookingId, bookerId);
@@ -181,7 +215,7 @@ class BookingServiceImplTest {
         Item item = new Item(1L, owner, "Item", "Description", true, null);
         Booking booking = new Booking(bookingId, start, end, item, booker, Status.WAITING);
 
-        when(userStorage.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(userExistence.exists(ownerId)).thenReturn(true);
         when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
 
         BookingDto result = bookingService.getBookingById(bookingId, ownerId);
@@ -202,7 +236,7 @@ class BookingServiceImplTest {
         Item item = new Item(1L, owner, "Item", "Description", true, null);
         Booking booking = new Booking(bookingId, start, end, item, booker, Status.WAITING);
 
-        when(userStorage.findById(otherUserId)).thenReturn(Optional.of(new User(otherUserId, "Other", "other@example.com")));
+        when(userExistence.exists(otherUserId)).thenReturn(true);
         when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
 
         assertThrows(ValidationException.class, () -> bookingService.getBookingById(bookingId, otherUserId));
@@ -218,14 +252,16 @@ class BookingServiceImplTest {
         Booking booking = new Booking(bookingId, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.WAITING);
 
         when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userStorage.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingStorage.save(any(Booking.class))).thenReturn(booking);
-
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingIntervalIndex.hasOverlap(1L, start, end)).thenReturn(false);
+        when(bookingStorage.updateWaitingStatus(bookingId, Status.APPROVED)).thenReturn(1);
 
         BookingDto result = bookingService.approveBooking(bookingId, true, ownerId);
 
         assertNotNull(result);
         assertEquals(Status.APPROVED, result.getStatus());
+        verify(bookingIntervalIndex).addApproved(booking);
+        verify(itemBookingSummaryUpdater).refresh(1L);
     }
 
     @Test
@@ -238,13 +274,15 @@ class BookingServiceImplTest {
         Booking booking = new Booking(bookingId, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.WAITING);
 
         when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userStorage.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingStorage.save(any(Booking.class))).thenReturn(booking);
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingStorage.updateWaitingStatus(bookingId, Status.REJECTED)).thenReturn(1);
 
         BookingDto result = bookingService.approveBooking(bookingId, false, ownerId);
 
         assertNotNull(result);
         assertEquals(Status.REJECTED, result.getStatus());
+        verify(bookingIntervalIndex, never()).addApproved(any());
+        verifyNoInteractions(itemBookingSummaryUpdater);
     }
 
     @Test
@@ -272,9 +310,183 @@ class BookingServiceImplTest {
         Booking booking = new Booking(bookingId, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.APPROVED);
 
         when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userStorage.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(userExistence.exists(ownerId)).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> bookingService.approveBooking(bookingId, true, ownerId));
+    }
+
+    @Test
+    void approveBooking_shouldThrowWhenOverlapsApprovedBooking() {
+        Long bookingId = 1L;
+        Long ownerId = 2L;
+
+        User owner = new User(ownerId, "Owner", "owner@example.com");
+        Item item = new Item(1L, owner, "Item", "Description", true, null);
+        Booking booking = new Booking(bookingId, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.WAITING);
+
+        when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingIntervalIndex.hasOverlap(1L, start, end)).thenReturn(true);
+
+        assertThrows(BookingTimeException.class, () -> bookingService.approveBooking(bookingId, true, ownerId));
+        verify(bookingStorage, never()).updateWaitingStatus(anyLong(), any());
+    }
+
+    @Test
+    void approveBooking_shouldThrowWhenStatusChangedConcurrently() {
+        Long bookingId = 1L;
+        Long ownerId = 2L;
+
+        User owner = new User(ownerId, "Owner", "owner@example.com");
+        Item item = new Item(1L, owner, "Item", "Description", true, null);
+        Booking booking = new Booking(bookingId, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.WAITING);
+
+        when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingIntervalIndex.hasOverlap(1L, start, end)).thenReturn(false);
+        when(bookingStorage.updateWaitingStatus(bookingId, Status.APPROVED)).thenReturn(0);
 
         assertThrows(ValidationException.class, () -> bookingService.approveBooking(bookingId, true, ownerId));
+        verify(bookingIntervalIndex, never()).addApproved(any());
+    }
+
+    @Test
+    void approveBooking_shouldThrowWhenDatabaseRejectsOverlap() {
+        Long bookingId = 1L;
+        Long ownerId = 2L;
+
+        User owner = new User(ownerId, "Owner", "owner@example.com");
+        Item item = new Item(1L, owner, "Item", "Description", true, null);
+        Booking booking = new Booking(bookingId, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.WAITING);
+
+        when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingIntervalIndex.hasOverlap(1L, start, end)).thenReturn(false);
+        when(bookingStorage.updateWaitingStatus(bookingId, Status.APPROVED))
+                .thenThrow(new DataIntegrityViolationException("excl_booking_approved_overlap"));
+
+        assertThrows(BookingTimeException.class, () -> bookingService.approveBooking(bookingId, true, ownerId));
+    }
+
+    @Test
+    void approveBooking_shouldNotReportSummaryFailureAsOverlap() {
+        Long bookingId = 1L;
+        Long ownerId = 2L;
+
+        User owner = new User(ownerId, "Owner", "owner@example.com");
+        Item item = new Item(1L, owner, "Item", "Description", true, null);
+        Booking booking = new Booking(bookingId, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.WAITING);
+
+        when(bookingStorage.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingIntervalIndex.hasOverlap(1L, start, end)).thenReturn(false);
+        when(bookingStorage.updateWaitingStatus(bookingId, Status.APPROVED)).thenReturn(1);
+        doThrow(new DataIntegrityViolationException("fk_summary_item")).when(itemBookingSummaryUpdater).refresh(1L);
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.approveBooking(bookingId, true, ownerId));
+    }
+
+    @Test
+    void approveBookings_shouldApproveAndRejectInOneTransaction() {
+        Long ownerId = 2L;
+        User owner = new User(ownerId, "Owner", "owner@example.com");
+        User booker = new User(1L, "Booker", "booker@example.com");
+        Item drill = new Item(1L, owner, "Drill", "Description", true, null);
+        Item saw = new Item(2L, owner, "Saw", "Description", true, null);
+        Booking first = new Booking(1L, start, end, drill, booker, Status.WAITING);
+        Booking second = new Booking(2L, end.plusHours(1), end.plusHours(2), drill, booker, Status.WAITING);
+        Booking rejected = new Booking(3L, start, end, saw, booker, Status.WAITING);
+
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingStorage.findAllWithItemByIdIn(Set.of(2L, 3L, 1L))).thenReturn(List.of(first, second, rejected));
+        when(bookingIntervalIndex.hasOverlap(eq(1L), any(), any())).thenReturn(false);
+        runInTransaction();
+        when(bookingStorage.updateWaitingStatuses(List.of(2L, 1L), Status.APPROVED)).thenReturn(2);
+        when(bookingStorage.updateWaitingStatuses(List.of(3L), Status.REJECTED)).thenReturn(1);
+
+        List<BookingDto> result = bookingService.approveBookings(List.of(
+                new BookingDecisionDto(2L, true),
+                new BookingDecisionDto(3L, false),
+                new BookingDecisionDto(1L, true)), ownerId);
+
+        assertEquals(List.of(2L, 3L, 1L), result.stream().map(BookingDto::getId).toList());
+        assertEquals(List.of(Status.APPROVED, Status.REJECTED, Status.APPROVED),
+                result.stream().map(BookingDto::getStatus).toList());
+        verify(bookingIntervalIndex).addApproved(first);
+        verify(bookingIntervalIndex).addApproved(second);
+        verify(itemBookingSummaryUpdater).refresh(List.of(1L));
+    }
+
+    @Test
+    void approveBookings_shouldThrowWhenBatchBookingsOverlap() {
+        Long ownerId = 2L;
+        User owner = new User(ownerId, "Owner", "owner@example.com");
+        User booker = new User(1L, "Booker", "booker@example.com");
+        Item item = new Item(1L, owner, "Item", "Description", true, null);
+        Booking first = new Booking(1L, start, end, item, booker, Status.WAITING);
+        Booking second = new Booking(2L, end, end.plusHours(1), item, booker, Status.WAITING);
+
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingStorage.findAllWithItemByIdIn(Set.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(bookingIntervalIndex.hasOverlap(1L, start, end)).thenReturn(false);
+
+        assertThrows(BookingTimeException.class, () -> bookingService.approveBookings(List.of(
+                new BookingDecisionDto(2L, true),
+                new BookingDecisionDto(1L, true)), ownerId));
+        verifyNoInteractions(transactionTemplate);
+        verify(bookingIntervalIndex, never()).addApproved(any());
+    }
+
+    @Test
+    void approveBookings_shouldThrowWhenAnyBookingIsForeign() {
+        Long ownerId = 2L;
+        User booker = new User(1L, "Booker", "booker@example.com");
+        Item own = new Item(1L, new User(ownerId, "Owner", "owner@example.com"), "Item", "Description", true, null);
+        Item foreign = new Item(2L, new User(3L, "Other", "other@example.com"), "Item", "Description", true, null);
+
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingStorage.findAllWithItemByIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                new Booking(1L, start, end, own, booker, Status.WAITING),
+                new Booking(2L, start, end, foreign, booker, Status.WAITING)));
+
+        assertThrows(ValidationException.class, () -> bookingService.approveBookings(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false)), ownerId));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void approveBookings_shouldThrowWhenBookingIsRepeated() {
+        when(userExistence.exists(2L)).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> bookingService.approveBookings(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(1L, false)), 2L));
+        verifyNoInteractions(bookingStorage);
+    }
+
+    @Test
+    void approveBookings_shouldRollBackWhenPartOfBatchWasDecidedConcurrently() {
+        Long ownerId = 2L;
+        User owner = new User(ownerId, "Owner", "owner@example.com");
+        User booker = new User(1L, "Booker", "booker@example.com");
+        Item item = new Item(1L, owner, "Item", "Description", true, null);
+        Booking approved = new Booking(1L, start, end, item, booker, Status.WAITING);
+        Booking rejected = new Booking(2L, start, end, item, booker, Status.WAITING);
+
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(bookingStorage.findAllWithItemByIdIn(Set.of(1L, 2L))).thenReturn(List.of(approved, rejected));
+        when(bookingIntervalIndex.hasOverlap(1L, start, end)).thenReturn(false);
+        runInTransaction();
+        when(bookingStorage.updateWaitingStatuses(List.of(1L), Status.APPROVED)).thenReturn(1);
+        when(bookingStorage.updateWaitingStatuses(List.of(2L), Status.REJECTED)).thenReturn(0);
+
+        assertThrows(ValidationException.class, () -> bookingService.approveBookings(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false)), ownerId));
+        verify(bookingIntervalIndex, never()).addApproved(any());
+        verifyNoInteractions(itemBookingSummaryUpdater);
+        assertEquals(Status.WAITING, approved.getStatus());
     }
 
     @Test
@@ -286,15 +498,70 @@ class BookingServiceImplTest {
 
         Booking booking = new Booking(1L, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.APPROVED);
 
-        when(userStorage.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookingStorage.findByBookerIdOrderByStartDesc(userId)).thenReturn(Collections.singletonList(booking));
+        when(userExistence.exists(userId)).thenReturn(true);
+        when(bookingStorage.findByBookerIdOrderByStartDescIdDesc(userId, ScrollPosition.keyset(), Limit.unlimited()))
+                .thenReturn(Window.from(Collections.singletonList(booking), ScrollPosition::offset));
 
-        List<BookingDto> result = bookingService.getUserBookings(userId, State.ALL);
+        List<BookingDto> result = bookingService.getUserBookings(userId, State.ALL, null, null);
 
         assertEquals(1, result.size());
         assertEquals(userId, result.get(0).getBooker().getId());
     }
 
+    @Test
+    void getUserBookings_shouldContinueAfterCursorBooking() {
+        Long userId = 1L;
+
+        User owner = new User(2L, "Owner", "owner@example.com");
+        User booker = new User(userId, "Booker", "booker@example.com");
+        Item item = new Item(1L, owner, "Item", "Description", true, null);
+        Booking cursor = new Booking(5L, start, end, item, booker, Status.WAITING);
+        Booking older = new Booking(4L, start.minusDays(1), end.minusDays(1), item, booker, Status.WAITING);
+        ScrollPosition afterCursor = ScrollPosition.forward(Map.of("start", start, "id", 5L));
+
+        when(userExistence.exists(userId)).thenReturn(true);
+        when(bookingStorage.findByIdAndBookerId(5L, userId)).thenReturn(Optional.of(cursor));
+        when(bookingStorage.findByBookerIdAndStatusOrderByStartDescIdDesc(userId, Status.WAITING, afterCursor, Limit.of(1)))
+                .thenReturn(Window.from(List.of(older), ScrollPosition::offset));
+
+        List<BookingDto> result = bookingService.getUserBookings(userId, State.WAITING, 5L, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(4L, result.get(0).getId());
+    }
+
+    @Test
+    void getUserBookings_shouldThrowNotFoundWhenCursorIsNotOwnBooking() {
+        Long userId = 1L;
+
+        when(userExistence.exists(userId)).thenReturn(true);
+        when(bookingStorage.findByIdAndBookerId(5L, userId)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.getUserBookings(userId, State.ALL, 5L, 10));
+        verify(bookingStorage, never()).findById(anyLong());
+    }
+
+    @Test
+    void getUserBookings_shouldThrowValidationExceptionWhenSizeIsNotPositive() {
+        Long userId = 1L;
+
+        when(userExistence.exists(userId)).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> bookingService.getUserBookings(userId, State.ALL, null, 0));
+        assertThrows(ValidationException.class, () -> bookingService.getUserBookings(userId, State.ALL, null, -1));
+    }
+
+    @Test
+    void getOwnerBookings_shouldThrowNotFoundWhenCursorIsNotOnOwnItem() {
+        Long ownerId = 2L;
+
+        when(userExistence.exists(ownerId)).thenReturn(true);
+        when(itemStorage.findByOwnerId(ownerId)).thenReturn(Collections.singletonList(new Item()));
+        when(bookingStorage.findByIdAndItemOwnerId(5L, ownerId)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.getOwnerBookings(ownerId, State.ALL, 5L, 10));
+    }
+
     @Test
     void getOwnerBookings_shouldReturnAllBookings() {
         Long ownerId = 2L;
@@ -303,11 +570,12 @@ class BookingServiceImplTest {
 
         Booking booking = new Booking(1L, start, end, item, new User(1L, "Booker", "booker@example.com"), Status.APPROVED);
 
-        when(userStorage.findById(ownerId)).thenReturn(Optional.of(new User()));
+        when(userExistence.exists(ownerId)).thenReturn(true);
         when(itemStorage.findByOwnerId(ownerId)).thenReturn(Collections.singletonList(new Item()));
-        when(bookingStorage.findByItemOwnerIdOrderByStartDesc(ownerId)).thenReturn(Collections.singletonList(booking));
+        when(bookingStorage.findByItemOwnerIdOrderByStartDescIdDesc(ownerId, ScrollPosition.keyset(), Limit.unlimited()))
+                .thenReturn(Window.from(Collections.singletonList(booking), ScrollPosition::offset));
 
-        List<BookingDto> result = bookingService.getOwnerBookings(ownerId, State.ALL);
+        List<BookingDto> result = bookingService.getOwnerBookings(ownerId, State.ALL, null, null);
 
         assertEquals(1, result.size());
     }
@@ -316,10 +584,10 @@ class BookingServiceImplTest {
     void getOwnerBookings_shouldThrowWhenNoItems() {
         Long ownerId = 2L;
 
-        when(userStorage.findById(ownerId)).thenReturn(Optional.of(new User()));
+        when(userExistence.exists(ownerId)).thenReturn(true);
         when(itemStorage.findByOwnerId(ownerId)).thenReturn(Collections.emptyList());
 
-        assertThrows(NotFoundException.class, () -> bookingService.getOwnerBookings(ownerId, State.ALL));
+        assertThrows(NotFoundException.class, () -> bookingService.getOwnerBookings(ownerId, State.ALL, null, null));
     }
 
     @Test
@@ -335,4 +603,35 @@ class BookingServiceImplTest {
 
         assertEquals(1, result.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamAllBookings_shouldPassEveryBookingToConsumerAndClearContext() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        User booker = new User(2L, "Booker", "booker@example.com");
+        Item item = new Item(1L, owner, "Item", "Description", true, null);
+        List<Booking> bookings = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            bookings.add(new Booking(id, start, end, item, booker, Status.APPROVED));
+        }
+
+        when(bookingStorage.streamAll()).thenReturn(bookings.stream());
+
+        List<Long> exported = new ArrayList<>();
+        bookingService.streamAllBookings(bookingDto -> exported.add(bookingDto.getId()));
+
+        assertEquals(1000, exported.size());
+        assertEquals(1L, exported.get(0));
+        assertEquals(1000L, exported.get(999));
+        verify(entityManager, times(2)).clear();
+        verify(bookingStorage, never()).findAll();
+    }
+
+    // Шаблон транзакции выполняет колбэк сразу, как реальный при отсутствии ошибок
+    private void runInTransaction() {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.dal.ItemBookingSummaryStorage;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.dal.OwnerItemView;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dal.UserStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemBookingSummaryUpdaterTest {
+
+    @Autowired
+    private ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+
+    @Autowired
+    private ItemBookingSummaryStorage itemBookingSummaryStorage;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        String timestamp = String.valueOf(System.nanoTime());
+        owner = userStorage.save(new User(null, "Owner", "owner_" + timestamp + "@example.com"));
+        booker = userStorage.save(new User(null, "Booker", "booker_" + timestamp + "@example.com"));
+    }
+
+    @Test
+    void refresh_shouldPickLatestStartedAndNearestFutureApprovedBookings() {
+        Item drill = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        Item saw = itemStorage.save(new Item(null, owner, "Пила", "Циркулярная", true, null));
+        // Бронирования сохраняются не по порядку дат, чтобы выбор не зависел от порядка вставки
+        Booking last = book(drill, now.minusDays(3), now.minusDays(2), Status.APPROVED);
+        book(drill, now.minusDays(10), now.minusDays(9), Status.APPROVED);
+        book(drill, now.minusDays(1), now.minusHours(20), Status.REJECTED);
+        book(drill, now.plusDays(5), now.plusDays(6), Status.APPROVED);
+        Booking next = book(drill, now.plusDays(1), now.plusDays(2), Status.APPROVED);
+        book(drill, now.plusHours(1), now.plusHours(2), Status.WAITING);
+
+        itemBookingSummaryUpdater.refresh(drill.getId());
+        List<OwnerItemView> rows = itemStorage.findByOwnerIdWithBookings(owner.getId());
+
+        assertThat(rows).extracting(row -> row.getItem().getId()).containsExactly(drill.getId(), saw.getId());
+        assertThat(rows.get(0).getLastBooking().getId()).isEqualTo(last.getId());
+        assertThat(rows.get(0).getLastBooking().getBooker().getName()).isEqualTo("Booker");
+        assertThat(rows.get(0).getNextBooking().getId()).isEqualTo(next.getId());
+        assertThat(rows.get(1).getLastBooking()).isNull();
+        assertThat(rows.get(1).getNextBooking()).isNull();
+    }
+
+    // Сервис подтверждения рассчитывает на открытую сессию, как при open-in-view
+    @Test
+    @Transactional
+    void approveBooking_shouldUpdateSummary() {
+        Item drill = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        Booking booking = book(drill, now.plusDays(1), now.plusDays(2), Status.WAITING);
+
+        bookingService.approveBooking(booking.getId(), true, owner.getId());
+
+        ItemDto itemDto = itemService.getItemsByOwner(owner.getId()).getFirst();
+        assertThat(itemDto.getLastBooking()).isNull();
+        assertThat(itemDto.getNextBooking().getId()).isEqualTo(booking.getId());
+    }
+
+    @Test
+    void refreshStarted_shouldMoveStartedNextBookingToLast() {
+        Item drill = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        Booking started = book(drill, now.minusMinutes(1), now.plusDays(1), Status.APPROVED);
+        Booking future = book(drill, now.plusDays(2), now.plusDays(3), Status.APPROVED);
+        // Сводка, посчитанная до того, как бронирование началось
+        itemBookingSummaryStorage.save(new ItemBookingSummary(drill.getId(), null, started, started.getStart()));
+
+        itemBookingSummaryUpdater.refreshStarted();
+
+        ItemBookingSummary summary = itemBookingSummaryStorage.findById(drill.getId()).orElseThrow();
+        assertThat(summary.getLastBooking().getId()).isEqualTo(started.getId());
+        assertThat(summary.getNextBooking().getId()).isEqualTo(future.getId());
+        assertThat(summary.getNextStart()).isCloseTo(future.getStart(), within(1, ChronoUnit.MILLIS));
+    }
+
+    @Test
+    void getItemsByOwner_shouldRefreshStaleSummaryBeforeSchedulerDoes() {
+        Item drill = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        Booking started = book(drill, now.minusMinutes(1), now.plusDays(1), Status.APPROVED);
+        itemBookingSummaryStorage.save(new ItemBookingSummary(drill.getId(), null, started, started.getStart()));
+
+        ItemDto itemDto = itemService.getItemsByOwner(owner.getId()).getFirst();
+
+        assertThat(itemDto.getLastBooking().getId()).isEqualTo(started.getId());
+        assertThat(itemDto.getNextBooking()).isNull();
+    }
+
+    private Booking book(Item item, LocalDateTime start, LocalDateTime end, Status status) {
+        return bookingStorage.save(new Booking(null, start, end, item, booker, status));
+    }
+}
@@ -7,23 +7,35 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.exception.GlobalExceptionHandler;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.RequestCommentDto;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemBodyDto;
+import ru.practicum.shareit.item.dto.ItemBulkResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.times;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -39,13 +51,13 @@ class ItemControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    private ObjectMapper objectMapper;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders.standaloneSetup(itemController).build();
-        objectMapper = new ObjectMapper();
     }
 
     @Test
@@ -92,15 +104,67 @@ class ItemControllerTest {
         long itemId = 1L;
         ItemDto itemDto = new ItemDto(itemId, "Item Name", "Item Description", true, null, null, Collections.emptyList(), null);
 
-        when(itemService.getById(itemId)).thenReturn(itemDto);
+        when(itemService.getVersion(itemId)).thenReturn(3L);
+        when(itemService.getById(itemId, 3L)).thenReturn(itemDto);
 
         mockMvc.perform(get("/items/{itemsId}", itemId))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(itemId))
-                .andExpect(jsonPath("$.name").value("Item Name"));
+                .andExpect(jsonPath("$.name").value("Item Name"))
+                .andExpect(header().exists("ETag"));
+
+        verify(itemService, times(1)).getById(itemId, 3L);
+    }
+
+    @Test
+    void searchFree() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 18, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 1, 6, 20, 0);
+        ItemDto itemDto = new ItemDto(1L, "Дрель", "Ударная", true, null, null, Collections.emptyList(), null);
+
+        when(itemService.search("дрель", start, end, 0, 10)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("start", "2030-01-04T18:00:00")
+                        .param("end", "2030-01-06T20:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(itemService, times(1)).getById(itemId);
+        verify(itemService, never()).search(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchFree_ShouldRequireBothBounds() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(itemController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("start", "2030-01-04T18:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void getAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 31, 0, 0);
+        List<FreeIntervalDto> free = List.of(new FreeIntervalDto(from, LocalDateTime.of(2030, 1, 10, 12, 0)));
+
+        when(itemService.getAvailability(1L, from, to)).thenReturn(free);
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-31T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].end[2]").value(10));
+
+        verify(itemService, times(1)).getAvailability(1L, from, to);
     }
 
     @Test
@@ -126,7 +190,7 @@ class ItemControllerTest {
         String searchText = "search text";
         ItemDto itemDto = new ItemDto(1L, "Item Name", "Item Description", true, null, null, Collections.emptyList(), null);
 
-        when(itemService.search(searchText)).thenReturn(Collections.singletonList(itemDto));
+        when(itemService.search(searchText, 0, 10)).thenReturn(Collections.singletonList(itemDto));
 
         mockMvc.perform(get("/items/search")
                         .param("text", searchText)
@@ -136,7 +200,7 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].name").value("Item Name"));
 
-        verify(itemService, times(1)).search(searchText);
+        verify(itemService, times(1)).search(searchText, 0, 10);
     }
 
     @Test
@@ -158,4 +222,43 @@ class ItemControllerTest {
 
         verify(itemService, times(1)).addComment(eq(itemId), any(), anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addAll_shouldReadJsonArrayAndNdjsonElementByElement() throws Exception {
+        List<String> names = new ArrayList<>();
+        when(itemService.addAll(eq(1L), any())).thenAnswer(invocation -> {
+            Iterator<ItemBodyDto> items = invocation.getArgument(1);
+            List<ItemBulkResultDto> results = new ArrayList<>();
+            while (items.hasNext()) {
+                names.add(items.next().getName());
+                results.add(ItemBulkResultDto.created(results.size(), (long) results.size() + 1));
+            }
+            return results;
+        });
+
+        mockMvc.perform(post("/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"Дрель\"},{\"name\":\"Пила\"}]")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].id").value(2));
+        mockMvc.perform(post("/items/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Молоток\"}\n{\"name\":\"Отвертка\"}\n")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        assertEquals(List.of("Дрель", "Пила", "Молоток", "Отвертка"), names);
+    }
+
+    @Test
+    void itemBodyDtoReader_shouldKeepParsedElementsBeforeMalformedOne() throws Exception {
+        ItemBodyDtoReader reader = new ItemBodyDtoReader(objectMapper.createParser("[{\"name\":\"Дрель\"}, {\"name\" 1}]"));
+
+        assertEquals("Дрель", reader.next().getName());
+        assertThrows(UncheckedIOException.class, reader::next);
+        assertFalse(reader.hasNext());
+    }
+}
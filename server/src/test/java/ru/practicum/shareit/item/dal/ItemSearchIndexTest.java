@@ -0,0 +1,188 @@
+package ru.practicum.shareit.item.dal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemStorage itemStorage;
+
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+
+    @Test
+    void search_shouldMatchSubstringsOfNameOrDescriptionIgnoringCase() {
+        when(itemStorage.findByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Дрель", "Аккумуляторная дрель Bosch", true),
+                item(2L, "Отвертка", "Крестовая", true),
+                item(3L, "Перфоратор", "Сверлит бетон", true)));
+
+        assertEquals(List.of(1L), search("дРЕль"));
+        assertEquals(List.of(1L), search("ляторная др"));
+        assertEquals(List.of(3L), search("Сверл"));
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(search("р")));
+        assertEquals(Set.of(2L, 3L), Set.copyOf(search("ер")));
+        assertTrue(search("дрель bosch x").isEmpty());
+        // Подстрока не должна склеиваться из конца названия и начала описания
+        assertTrue(search("рельакк").isEmpty());
+
+        verify(itemStorage, times(1)).findByAvailableTrue();
+    }
+
+    @Test
+    void index_shouldReplaceChangedItemAndDropUnavailableOne() {
+        when(itemStorage.findByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Дрель", "Ударная", true),
+                item(2L, "Пила", "Циркулярная", true)));
+        assertEquals(List.of(1L), search("дрель"));
+
+        itemSearchIndex.index(item(1L, "Шуруповерт", "Ударный", true));
+        itemSearchIndex.index(item(2L, "Пила", "Циркулярная", false));
+        itemSearchIndex.index(item(3L, "Дрель", "Новая", true));
+
+        assertEquals(List.of(3L), search("дрель"));
+        assertEquals(List.of(1L), search("шуруп"));
+        assertTrue(search("пила").isEmpty());
+    }
+
+    @Test
+    void index_shouldApplyChangeThatArrivesDuringLoad() throws InterruptedException {
+        Thread update = new Thread(() -> itemSearchIndex.index(item(2L, "Дрель", "Новая", true)));
+        when(itemStorage.findByAvailableTrue()).thenAnswer(invocation -> {
+            // Вещь сохранена уже после чтения из базы, и ее индексация ждет окончания загрузки
+            update.start();
+            while (update.getState() != Thread.State.WAITING && update.getState() != Thread.State.TERMINATED) {
+                Thread.onSpinWait();
+            }
+            return List.of(item(1L, "Дрель", "Ударная", true));
+        });
+
+        search("дрель");
+        update.join();
+
+        assertEquals(Set.of(1L, 2L), Set.copyOf(search("дрель")));
+    }
+
+    @Test
+    void index_shouldSkipItemsUntilIndexIsLoaded() {
+        itemSearchIndex.index(item(1L, "Дрель", "Ударная", true));
+
+        verifyNoInteractions(itemStorage);
+    }
+
+    @Test
+    void search_shouldRankByRelevanceAndReturnRequestedPage() {
+        when(itemStorage.findByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Набор ключей", "В наборе есть торцевая дрель-насадка", true),
+                item(2L, "Дрель", "Дрель ударная, к дрели есть запасной патрон", true),
+                item(3L, "Дрель", "Легкая", true),
+                item(4L, "Лестница", "Стремянка", true),
+                item(5L, "Шуруповерт", "Работает как дрель", true)));
+
+        // Совпадение в названии весит больше, чем в описании, повторы поднимают вещь выше,
+        // а при одинаковом числе совпадений короткое описание важнее длинного
+        assertEquals(List.of(2L, 3L, 5L, 1L), search("дрел"));
+        assertEquals(List.of(2L, 3L), itemSearchIndex.search("дрел", 0, 2));
+        assertEquals(List.of(5L, 1L), itemSearchIndex.search("дрел", 2, 2));
+        assertTrue(itemSearchIndex.search("дрел", 4, 2).isEmpty());
+    }
+
+    @Test
+    void search_shouldApplyFilterBeforePaging() {
+        when(itemStorage.findByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Дрель", "Ударная", true),
+                item(2L, "Дрель", "Легкая", true),
+                item(3L, "Дрель", "Старая", true),
+                item(4L, "Пила", "Циркулярная", true)));
+        Set<Long> busy = Set.of(1L, 2L);
+        List<Collection<Long>> prepared = new ArrayList<>();
+        CandidateFilter free = new CandidateFilter() {
+            @Override
+            public void prepare(Collection<Long> itemIds) {
+                prepared.add(Set.copyOf(itemIds));
+            }
+
+            @Override
+            public boolean accept(Long itemId) {
+                return !busy.contains(itemId);
+            }
+        };
+
+        // Занятые вещи не съедают место на первой странице
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 0, 1, free));
+        assertEquals(List.of(Set.of(1L, 2L, 3L)), prepared);
+    }
+
+    @Test
+    void search_shouldPrepareFilterWithMatchesOutsideLock() {
+        when(itemStorage.findByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Дрель", "Ударная", true),
+                // Триграммы "дрель" есть, но в разных полях - кандидат, не совпадение
+                item(2L, "Дрел", "Ель", true)));
+        List<Collection<Long>> prepared = new ArrayList<>();
+        CandidateFilter filter = new CandidateFilter() {
+            @Override
+            public void prepare(Collection<Long> itemIds) {
+                prepared.add(Set.copyOf(itemIds));
+                // Под блокировкой чтения запись из того же потока заблокировалась бы навсегда
+                itemSearchIndex.index(item(3L, "Дрель", "Новая", true));
+            }
+
+            @Override
+            public boolean accept(Long itemId) {
+                return true;
+            }
+        };
+
+        List<Long> found = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> itemSearchIndex.search("дрель", 0, 10, filter));
+
+        assertEquals(List.of(1L), found);
+        assertEquals(List.of(Set.of(1L)), prepared);
+    }
+
+    @Test
+    void search_shouldSkipFilteredItemRemovedBeforeRanking() {
+        when(itemStorage.findByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Дрель", "Ударная", true),
+                item(2L, "Дрель", "Легкая", true)));
+        CandidateFilter filter = new CandidateFilter() {
+            @Override
+            public void prepare(Collection<Long> itemIds) {
+                itemSearchIndex.remove(1L);
+            }
+
+            @Override
+            public boolean accept(Long itemId) {
+                return true;
+            }
+        };
+
+        assertEquals(List.of(2L), itemSearchIndex.search("дрель", 0, 10, filter));
+    }
+
+    private List<Long> search(String text) {
+        return itemSearchIndex.search(text, 0, 100);
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        return new Item(id, null, name, description, available, null);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.dal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSuggestIndexTest {
+
+    @Mock
+    private ItemStorage itemStorage;
+
+    @InjectMocks
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @Test
+    void suggest_shouldReturnMostFrequentCompletionsOfPrefix() {
+        when(itemStorage.findByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Дрель ударная", true),
+                item(2L, "Дрель аккумуляторная", true),
+                item(3L, "Дрели набор", true),
+                item(4L, "Друза кварца", true)));
+
+        assertEquals(List.of("дрель", "дрели", "друза"), itemSuggestIndex.suggest("Др", 10));
+        assertEquals(List.of("дрель", "дрели"), itemSuggestIndex.suggest("дре", 10));
+        assertEquals(List.of("дрель"), itemSuggestIndex.suggest("др", 1));
+        assertEquals(List.of("ударная"), itemSuggestIndex.suggest("у", 10));
+        assertTrue(itemSuggestIndex.suggest("пила", 10).isEmpty());
+
+        verify(itemStorage, times(1)).findByAvailableTrue();
+    }
+
+    @Test
+    void index_shouldKeepSuggestionsCurrentAfterChanges() {
+        when(itemStorage.findByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Дрель", true),
+                item(2L, "Дрель", true),
+                item(3L, "Дрели", true)));
+        assertEquals(List.of("дрель", "дрели"), itemSuggestIndex.suggest("др", 10));
+
+        itemSuggestIndex.index(item(4L, "Дрели", true));
+        itemSuggestIndex.index(item(5L, "Дрели", true));
+        assertEquals(List.of("дрели", "дрель"), itemSuggestIndex.suggest("др", 10));
+
+        itemSuggestIndex.index(item(4L, "Дрели", false));
+        itemSuggestIndex.index(item(5L, "Шуруповерт", true));
+        assertEquals(List.of("дрель", "дрели"), itemSuggestIndex.suggest("др", 10));
+        assertEquals(List.of("шуруповерт"), itemSuggestIndex.suggest("ш", 10));
+
+        itemSuggestIndex.index(item(3L, "Дрели", false));
+        assertEquals(List.of("дрель"), itemSuggestIndex.suggest("др", 10));
+        assertTrue(itemSuggestIndex.suggest("дрели", 10).isEmpty());
+    }
+
+    @Test
+    void index_shouldSkipItemsUntilIndexIsLoaded() {
+        itemSuggestIndex.index(item(1L, "Дрель", true));
+
+        verifyNoInteractions(itemStorage);
+    }
+
+    private Item item(Long id, String name, boolean available) {
+        return new Item(id, null, name, "Описание", available, null);
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.item.comment.dal.CommentStorage;
+import ru.practicum.shareit.item.comment.dto.RequestCommentDto;
+import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.dto.ItemBodyDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dal.UserStorage;
+import ru.practicum.shareit.user.dto.RequestUserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemServiceImplCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @SpyBean
+    private CommentStorage commentStorage;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.ITEMS).clear();
+        String timestamp = String.valueOf(System.nanoTime());
+        owner = userStorage.save(new User(null, "Owner", "owner_" + timestamp + "@example.com"));
+        booker = userStorage.save(new User(null, "Booker", "booker_" + timestamp + "@example.com"));
+        item = itemStorage.save(new Item(null, owner, "Дрель", "Ударная", true, null));
+        clearInvocations(commentStorage);
+    }
+
+    @Test
+    void getById_shouldServeRepeatedReadsFromCacheAndRecordHits() {
+        double hitsBefore = cacheGets("hit");
+
+        ItemDto first = currentItem();
+        ItemDto second = currentItem();
+
+        assertThat(second.getName()).isEqualTo(first.getName());
+        verify(commentStorage, times(1)).findByItemId(item.getId());
+        assertThat(cacheGets("hit")).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void update_shouldCacheItemUnderNewVersion() {
+        currentItem();
+
+        itemService.update(item.getId(), new ItemBodyDto("Перфоратор", null, null, null), owner.getId());
+
+        assertThat(currentItem().getName()).isEqualTo("Перфоратор");
+        verify(commentStorage, times(2)).findByItemId(item.getId());
+    }
+
+    @Test
+    void addComment_shouldCacheItemUnderNewVersion() {
+        bookingStorage.save(new Booking(null, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                item, booker, Status.APPROVED));
+        assertThat(currentItem().getComments()).isEmpty();
+
+        itemService.addComment(item.getId(), new RequestCommentDto("Отличная дрель"), booker.getId());
+
+        assertThat(currentItem().getComments()).hasSize(1);
+    }
+
+    @Test
+    void renamingCommentAuthor_shouldCacheItemUnderNewVersion() {
+        bookingStorage.save(new Booking(null, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                item, booker, Status.APPROVED));
+        itemService.addComment(item.getId(), new RequestCommentDto("Отличная дрель"), booker.getId());
+        assertThat(currentItem().getComments().get(0).getAuthorName()).isEqualTo("Booker");
+
+        userService.updateUser(booker.getId(), new RequestUserDto("Renamed", null));
+
+        assertThat(currentItem().getComments().get(0).getAuthorName()).isEqualTo("Renamed");
+    }
+
+    private ItemDto currentItem() {
+        return itemService.getById(item.getId(), itemService.getVersion(item.getId()));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.ITEMS)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -8,19 +8,31 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.dal.CommentStorage;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
+import ru.practicum.shareit.item.dto.ItemBodyDto;
+import ru.practicum.shareit.item.dto.ItemBulkResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -41,12 +53,21 @@ public class ItemServiceImplIntegrationTest {
     @Autowired
     private CommentStorage commentStorage;
 
+    @Autowired
+    private ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
     private Long ownerId;
 
     @BeforeEach
     void setUp() {
 
-        User owner = new User(null, "Owner Name", "owner@example.com");
+        User owner = new User(null, "Owner Name", "owner_" + System.nanoTime() + "@example.com");
         owner = userStorage.save(owner);
         ownerId = owner.getId();
 
@@ -58,11 +79,82 @@ public class ItemServiceImplIntegrationTest {
 
         Booking booking = new Booking(null, LocalDateTime.now(), LocalDateTime.now().plusSeconds(2), item1, owner, Status.APPROVED);
         bookingStorage.save(booking);
+        // Бронирование сохранено в обход сервиса, поэтому сводку по вещи пересчитываем сами
+        itemBookingSummaryUpdater.refresh(item1.getId());
 
         Comment comment = new Comment(null, "New Comment", item1, owner, LocalDateTime.now());
         commentStorage.save(comment);
     }
 
+    @Test
+    void testGetAvailability_shouldReflectApprovedBookings() {
+        User booker = userStorage.save(new User(null, "Booker", "booker_" + System.nanoTime() + "@example.com"));
+        Item item = itemStorage.save(new Item(null, userStorage.findById(ownerId).orElseThrow(), "Calendar item",
+                "Description", true, null));
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(10);
+
+        assertThat(itemService.getAvailability(item.getId(), from, to)).containsExactly(new FreeIntervalDto(from, to));
+
+        BookingDto booking = bookingService.addBooking(
+                new RequestBookingDto(from.plusDays(2), from.plusDays(3), item.getId()), booker.getId());
+        assertThat(itemService.getAvailability(item.getId(), from, to)).containsExactly(new FreeIntervalDto(from, to));
+
+        bookingService.approveBookings(List.of(new BookingDecisionDto(booking.getId(), true)), ownerId);
+
+        assertThat(itemService.getAvailability(item.getId(), from, to)).containsExactly(
+                new FreeIntervalDto(from, from.plusDays(2)),
+                new FreeIntervalDto(from.plusDays(3), to));
+    }
+
+    @Test
+    void testSearchFree_shouldSkipItemsBookedInPeriod() {
+        User booker = userStorage.save(new User(null, "Booker", "booker_" + System.nanoTime() + "@example.com"));
+        String name = "Ледоруб" + System.nanoTime();
+        ItemDto busy = itemService.add(ownerId, new ItemBodyDto(name, "Занятый", true, null));
+        ItemDto free = itemService.add(ownerId, new ItemBodyDto(name, "Свободный", true, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(5).withNano(0);
+
+        BookingDto booking = bookingService.addBooking(
+                new RequestBookingDto(start.plusHours(1), start.plusHours(2), busy.getId()), booker.getId());
+        bookingService.approveBookings(List.of(new BookingDecisionDto(booking.getId(), true)), ownerId);
+
+        assertThat(itemService.search(name, start, start.plusDays(1), 0, 10))
+                .extracting(ItemDto::getId).containsExactly(free.getId());
+        assertThat(itemService.search(name, start.plusDays(1), start.plusDays(2), 0, 10)).hasSize(2);
+    }
+
+    @Test
+    void deleteUser_shouldDropOwnerItemsFromSearchAndSuggestions() {
+        String word = "удаляемая" + System.nanoTime();
+        User leaving = userStorage.save(new User(null, "Leaving", "leaving_" + System.nanoTime() + "@example.com"));
+        itemService.add(leaving.getId(), new ItemBodyDto(word, "Первая", true, null));
+        itemService.add(leaving.getId(), new ItemBodyDto(word, "Вторая", true, null));
+        ItemDto staying = itemService.add(ownerId, new ItemBodyDto("Дрель", word, true, null));
+        // Совпадение в названии весит больше, поэтому вещи уходящего пользователя занимают первую страницу
+        assertThat(itemService.search(word, 0, 1)).extracting(ItemDto::getId).doesNotContain(staying.getId());
+        assertThat(itemService.suggest(word, 10)).containsExactly(word);
+
+        userService.deleteUser(leaving.getId());
+
+        assertThat(itemService.search(word, 0, 1)).extracting(ItemDto::getId).containsExactly(staying.getId());
+        assertThat(itemService.suggest(word, 10)).isEmpty();
+    }
+
+    @Test
+    void deleteUser_shouldMakeAvailabilityOfOwnerItemsNotFound() {
+        User leaving = userStorage.save(new User(null, "Leaving", "leaving_" + System.nanoTime() + "@example.com"));
+        ItemDto item = itemService.add(leaving.getId(), new ItemBodyDto("Палатка", "Трехместная", true, null));
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(10);
+        assertThat(itemService.getAvailability(item.getId(), from, to)).containsExactly(new FreeIntervalDto(from, to));
+
+        userService.deleteUser(leaving.getId());
+
+        assertThatThrownBy(() -> itemService.getAvailability(item.getId(), from, to))
+                .isInstanceOf(NotFoundException.class);
+    }
+
     @Test
     void testGetItemsByOwner() {
         List<ItemDto> items = itemService.getItemsByOwner(ownerId);
@@ -78,5 +170,22 @@ public class ItemServiceImplIntegrationTest {
         assertThat(itemDto2.getName()).isEqualTo("Item 2");
         assertThat(itemDto2.getComments()).isEmpty(); // Проверяем, что комментариев нет
     }
-}
 
+    // Больше одной порции сохранения: вещи из разных транзакций получают id и попадают в поиск
+    @Test
+    void addAll_shouldSaveItemsAcrossChunks() {
+        List<ItemBodyDto> bodies = IntStream.range(0, 501)
+                .mapToObj(i -> new ItemBodyDto(i == 7 ? "" : "Лобзик " + i, "Пилит фанеру", true, null))
+                .toList();
+
+        List<ItemBulkResultDto> results = itemService.addAll(ownerId, bodies.iterator());
+
+        assertThat(results).hasSize(501);
+        assertThat(results.get(7).getError()).isEqualTo("Имя не может быть пустым");
+        assertThat(results).filteredOn(result -> result.getId() != null).hasSize(500);
+        assertThat(itemStorage.findAllById(List.of(results.get(500).getId())))
+                .singleElement()
+                .satisfies(item -> assertThat(item.getName()).isEqualTo("Лобзик 500"));
+        assertThat(itemService.search("лобзик 500", 0, 10)).extracting(ItemDto::getName).contains("Лобзик 500");
+    }
+}
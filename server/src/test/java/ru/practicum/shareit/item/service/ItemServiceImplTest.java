@@ -1,33 +1,49 @@
 package ru.practicum.shareit.item.service;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.booking.dal.BookingStorage;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryUpdater;
 import ru.practicum.shareit.exception.BookingTimeException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.dal.CommentStorage;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.RequestCommentDto;
 import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.dal.CandidateFilter;
+import ru.practicum.shareit.item.dal.ItemSearchIndex;
 import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.dal.ItemSuggestIndex;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemBodyDto;
+import ru.practicum.shareit.item.dto.ItemBulkResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dal.RequestStorage;
 import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistence;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @ExtendWith(MockitoExtension.class)
 public class ItemServiceImplTest {
@@ -47,6 +63,27 @@ public class ItemServiceImplTest {
     @Mock
     private RequestStorage requestStorage;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @Mock
+    private ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private UserExistence userExistence;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ItemVersions itemVersions;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -63,7 +100,8 @@ public class ItemServiceImplTest {
 
     @Test
     void add_ShouldReturnItemDto_WhenUserExists() {
-        when(userStorage.findById(1L)).thenReturn(Optional.of(user));
+        when(userExistence.exists(1L)).thenReturn(true);
+        when(userStorage.getReferenceById(1L)).thenReturn(user);
         when(itemStorage.save(any(Item.class))).thenReturn(item);
 
         ItemDto result = itemService.add(1L, itemBodyDto);
@@ -71,10 +109,66 @@ public class ItemServiceImplTest {
 
         assertNotNull(result);
         assertEquals("Item name", result.getName());
-        verify(userStorage, times(1)).findById(1L);
+        verify(userExistence, times(1)).exists(1L);
         verify(itemStorage, times(1)).save(any(Item.class));
     }
 
+    @Test
+    void addAll_ShouldSaveValidItemsAndReportInvalidOnes() {
+        Iterator<ItemBodyDto> items = List.of(
+                itemBodyDto,
+                new ItemBodyDto(" ", "Item description", true, null),
+                new ItemBodyDto("Item name", "Item description", true, 5L),
+                new ItemBodyDto("Other item", "Other description", false, null)).iterator();
+
+        when(userExistence.exists(1L)).thenReturn(true);
+        when(requestStorage.findAllById(Set.of(5L))).thenReturn(List.of());
+        when(userStorage.getReferenceById(1L)).thenReturn(user);
+        when(itemStorage.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Item> saved = invocation.getArgument(0);
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setId(10L + i);
+            }
+            return saved;
+        });
+
+        List<ItemBulkResultDto> results = itemService.addAll(1L, items);
+
+        assertEquals(List.of(
+                ItemBulkResultDto.created(0, 10L),
+                ItemBulkResultDto.failed(1, "Имя не может быть пустым"),
+                ItemBulkResultDto.failed(2, "Request not found id: 5"),
+                ItemBulkResultDto.created(3, 11L)), results);
+        verify(itemSearchIndex, times(2)).index(any(Item.class));
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void addAll_ShouldKeepSavedItemsAndStop_WhenJsonIsMalformed() {
+        @SuppressWarnings("unchecked")
+        Iterator<ItemBodyDto> items = mock(Iterator.class);
+        when(items.hasNext()).thenReturn(true);
+        when(items.next()).thenReturn(itemBodyDto)
+                .thenThrow(new UncheckedIOException(new IOException("Unexpected character")));
+        when(userExistence.exists(1L)).thenReturn(true);
+        when(userStorage.getReferenceById(1L)).thenReturn(user);
+        when(itemStorage.saveAll(anyList())).thenReturn(List.of(item));
+
+        List<ItemBulkResultDto> results = itemService.addAll(1L, items);
+
+        assertEquals(List.of(
+                ItemBulkResultDto.created(0, 1L),
+                ItemBulkResultDto.failed(1, "Некорректный JSON: Unexpected character")), results);
+    }
+
+    @Test
+    void addAll_ShouldThrowNotFoundException_WhenUserDoesNotExist() {
+        when(userExistence.exists(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.addAll(1L, List.of(itemBodyDto).iterator()));
+        verifyNoInteractions(itemStorage);
+    }
+
     @Test
     void update_ShouldReturnUpdatedItemDto_WhenItemExistsAndUserIsOwner() {
         Item oldItem = new Item(1L, user, "Old name", "Old description", true,null);
@@ -106,7 +200,7 @@ public class ItemServiceImplTest {
         when(itemStorage.findById(1L)).thenReturn(Optional.of(item));
         when(commentStorage.findByItemId(1L)).thenReturn(List.of());
 
-        ItemDto result = itemService.getById(1L);
+        ItemDto result = itemService.getById(1L, 0L);
 
         assertNotNull(result);
         assertEquals("Item name", result.getName());
@@ -115,10 +209,110 @@ public class ItemServiceImplTest {
 
     @Test
     void search_ShouldReturnEmptyList_WhenTextIsBlank() {
-        List<ItemDto> result = itemService.search("");
+        List<ItemDto> result = itemService.search("", 0, 10);
 
         assertTrue(result.isEmpty());
-        verify(itemStorage, never()).searchByText(anyString());
+        verifyNoInteractions(itemSearchIndex);
+    }
+
+    @Test
+    void search_ShouldThrowValidationException_WhenPageIsInvalid() {
+        assertThrows(ValidationException.class, () -> itemService.search("item", -1, 10));
+        assertThrows(ValidationException.class, () -> itemService.search("item", 0, 0));
+
+        verifyNoInteractions(itemSearchIndex);
+    }
+
+    @Test
+    void search_ShouldKeepRelevanceOrderOfIndex() {
+        Item other = new Item(2L, user, "Other item", "Other description", true, null);
+
+        when(itemSearchIndex.search("item", 0, 10)).thenReturn(List.of(2L, 1L));
+        when(itemStorage.findAllById(List.of(2L, 1L))).thenReturn(List.of(item, other));
+
+        List<ItemDto> result = itemService.search("item", 0, 10);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void searchFree_ShouldFilterCandidatesByBookingIndex() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 0, 0);
+        LocalDateTime end = start.plusDays(2);
+        CandidateFilter free = itemId -> true;
+
+        when(bookingIntervalIndex.freeDuring(start, end)).thenReturn(free);
+        when(itemSearchIndex.search("item", 0, 10, free)).thenReturn(List.of(1L));
+        when(itemStorage.findAllById(List.of(1L))).thenReturn(List.of(item));
+
+        List<ItemDto> result = itemService.search("item", start, end, 0, 10);
+
+        assertEquals(List.of(1L), result.stream().map(ItemDto::getId).toList());
+        verifyNoInteractions(bookingStorage);
+    }
+
+    @Test
+    void searchFree_ShouldThrowValidationException_WhenPeriodIsEmpty() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 0, 0);
+
+        assertThrows(ValidationException.class, () -> itemService.search("item", start, start.minusDays(1), 0, 10));
+        verifyNoInteractions(itemSearchIndex);
+    }
+
+    @Test
+    void update_ShouldReindexItem() {
+        when(itemStorage.findById(1L)).thenReturn(Optional.of(item));
+
+        itemService.update(1L, new ItemBodyDto(null, null, false, null), 1L);
+
+        verify(itemSearchIndex).index(item);
+        verify(itemSuggestIndex).index(item);
+        assertFalse(item.getAvailable());
+    }
+
+    @Test
+    void suggest_ShouldReturnEmptyList_WhenPrefixIsBlank() {
+        assertTrue(itemService.suggest(" ", 10).isEmpty());
+
+        verifyNoInteractions(itemSuggestIndex);
+    }
+
+    @Test
+    void suggest_ShouldThrowValidationException_WhenSizeIsNotPositive() {
+        assertThrows(ValidationException.class, () -> itemService.suggest("др", 0));
+        assertThrows(ValidationException.class, () -> itemService.suggest("др", -1));
+
+        verifyNoInteractions(itemSuggestIndex);
+    }
+
+    @Test
+    void getAvailability_ShouldReadIndexWithoutQueries_WhenItemIsLoaded() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(30);
+        when(bookingIntervalIndex.isLoaded(1L)).thenReturn(true);
+        when(bookingIntervalIndex.freeIntervals(1L, from, to)).thenReturn(List.of(Map.entry(from, to)));
+
+        assertEquals(List.of(new FreeIntervalDto(from, to)), itemService.getAvailability(1L, from, to));
+        verifyNoInteractions(itemStorage, bookingStorage);
+    }
+
+    @Test
+    void getAvailability_ShouldThrowNotFoundException_WhenItemDoesNotExist() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        when(bookingIntervalIndex.isLoaded(1L)).thenReturn(false);
+        when(itemStorage.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(1L, from, from.plusDays(1)));
+        verify(bookingIntervalIndex, never()).freeIntervals(any(), any(), any());
+    }
+
+    @Test
+    void getAvailability_ShouldThrowValidationException_WhenPeriodIsEmpty() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(ValidationException.class, () -> itemService.getAvailability(1L, from, from));
+        verifyNoInteractions(bookingIntervalIndex);
     }
 
     @Test
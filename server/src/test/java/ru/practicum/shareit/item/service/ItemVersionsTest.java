@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dal.ItemStorage;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemVersionsTest {
+
+    @Mock
+    private ItemStorage itemStorage;
+
+    private ItemVersions itemVersions;
+
+    @BeforeEach
+    void setUp() {
+        itemVersions = new ItemVersions(itemStorage, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_shouldAskDatabaseOncePerItemAndNotRememberMissingItems() {
+        when(itemStorage.findVersionById(1L)).thenReturn(Optional.of(3L));
+        when(itemStorage.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertEquals(Optional.of(3L), itemVersions.get(1L));
+        assertEquals(Optional.of(3L), itemVersions.get(1L));
+        assertEquals(Optional.empty(), itemVersions.get(99L));
+        assertEquals(Optional.empty(), itemVersions.get(99L));
+
+        verify(itemStorage, times(1)).findVersionById(1L);
+        verify(itemStorage, times(2)).findVersionById(99L);
+    }
+
+    @Test
+    void increment_shouldMakeNextReadGoToDatabase() {
+        when(itemStorage.findVersionById(1L)).thenReturn(Optional.of(3L), Optional.of(4L));
+        assertEquals(Optional.of(3L), itemVersions.get(1L));
+
+        itemVersions.increment(List.of(1L));
+
+        assertEquals(Optional.of(4L), itemVersions.get(1L));
+        verify(itemStorage).incrementVersions(List.of(1L));
+        verify(itemStorage, times(2)).findVersionById(1L);
+    }
+
+    @Test
+    void invalidate_shouldForgetDeletedItem() {
+        when(itemStorage.findVersionById(1L)).thenReturn(Optional.of(3L), Optional.empty());
+        assertEquals(Optional.of(3L), itemVersions.get(1L));
+
+        itemVersions.invalidate(List.of(1L));
+
+        assertEquals(Optional.empty(), itemVersions.get(1L));
+    }
+}
@@ -14,6 +14,7 @@ import ru.practicum.shareit.request.dto.RequestItemDto;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistence;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +33,9 @@ class RequestServiceImplTest {
     @Mock
     private UserStorage userStorage;
 
+    @Mock
+    private UserExistence userExistence;
+
     @Mock
     private ItemStorage itemStorage;
 
@@ -85,7 +89,7 @@ class RequestServiceImplTest {
         Request request1 = new Request(1L, "test1", user, LocalDateTime.now());
         Request request2 = new Request(2L, "test2", user, LocalDateTime.now());
 
-        when(userStorage.findById(userId)).thenReturn(Optional.of(user));
+        when(userExistence.exists(userId)).thenReturn(true);
         when(requestStorage.findAllByRequesterId(userId)).thenReturn(List.of(request1, request2));
 
         List<RequestDto> result = requestService.getUserItemRequests(userId);
@@ -95,7 +99,7 @@ class RequestServiceImplTest {
         assertEquals(request1.getId(), result.get(0).getId());
         assertEquals(request2.getId(), result.get(1).getId());
 
-        verify(userStorage, times(1)).findById(userId);
+        verify(userExistence, times(1)).exists(userId);
         verify(requestStorage, times(1)).findAllByRequesterId(userId);
     }
 
@@ -106,7 +110,7 @@ class RequestServiceImplTest {
         Request request1 = new Request(1L, "test1", otherUser, LocalDateTime.now());
         Request request2 = new Request(2L, "test2", otherUser, LocalDateTime.now());
 
-        when(userStorage.findById(requesterId)).thenReturn(Optional.of(new User()));
+        when(userExistence.exists(requesterId)).thenReturn(true);
         when(requestStorage.findByRequesterIdNotOrderByCreatedDesc(requesterId))
                 .thenReturn(List.of(request1, request2));
 
@@ -118,7 +122,7 @@ class RequestServiceImplTest {
         assertEquals(request2.getId(), result.get(1).getId());
         assertNotEquals(requesterId, result.get(0).getRequester().getId());
 
-        verify(userStorage, times(1)).findById(requesterId);
+        verify(userExistence, times(1)).exists(requesterId);
         verify(requestStorage, times(1)).findByRequesterIdNotOrderByCreatedDesc(requesterId);
     }
 
@@ -131,7 +135,7 @@ class RequestServiceImplTest {
         Item item1 = new Item(1L, requester, "testName", "testDescription", true, request);
         Item item2 = new Item(2L, requester, "testName2", "testDescription2", true, request);
 
-        when(userStorage.findById(userId)).thenReturn(Optional.of(requester));
+        when(userExistence.exists(userId)).thenReturn(true);
         when(requestStorage.findById(requestId)).thenReturn(Optional.of(request));
         when(itemStorage.findByRequestId(requestId)).thenReturn(List.of(item1, item2));
 
@@ -141,7 +145,7 @@ class RequestServiceImplTest {
         assertEquals(requestId, result.getId());
         assertEquals(2, result.getItems().size());
 
-        verify(userStorage, times(1)).findById(userId);
+        verify(userExistence, times(1)).exists(userId);
         verify(requestStorage, times(1)).findById(requestId);
         verify(itemStorage, times(1)).findByRequestId(requestId);
     }
@@ -152,14 +156,14 @@ class RequestServiceImplTest {
         Long userId = 1L;
         User user = new User(userId, "testName", "test@example.com");
 
-        when(userStorage.findById(userId)).thenReturn(Optional.of(user));
+        when(userExistence.exists(userId)).thenReturn(true);
         when(requestStorage.findById(requestId)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> {
             requestService.getItemRequestById(requestId, userId);
         });
 
-        verify(userStorage, times(1)).findById(userId);
+        verify(userExistence, times(1)).exists(userId);
         verify(requestStorage, times(1)).findById(requestId);
         verify(itemStorage, never()).findByRequestId(any());
     }
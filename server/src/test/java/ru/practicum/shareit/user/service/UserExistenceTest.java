@@ -0,0 +1,65 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.dal.UserStorage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceTest {
+
+    @Mock
+    private UserStorage userStorage;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserExistence userExistence;
+
+    @BeforeEach
+    void setUp() {
+        userExistence = new UserExistence(userStorage, meterRegistry);
+    }
+
+    @Test
+    void exists_shouldAskDatabaseOncePerUserAndCountSavedLookups() {
+        when(userStorage.existsById(1L)).thenReturn(true);
+        when(userStorage.existsById(99L)).thenReturn(false);
+
+        assertTrue(userExistence.exists(1L));
+        assertTrue(userExistence.exists(1L));
+        assertTrue(userExistence.exists(1L));
+        assertFalse(userExistence.exists(99L));
+        assertFalse(userExistence.exists(99L));
+
+        verify(userStorage, times(1)).existsById(1L);
+        verify(userStorage, times(1)).existsById(99L);
+        assertEquals(3, cacheGets("hit"));
+        assertEquals(2, cacheGets("miss"));
+    }
+
+    @Test
+    void invalidate_shouldMakeNextCheckGoToDatabase() {
+        when(userStorage.existsById(1L)).thenReturn(true, false);
+        assertTrue(userExistence.exists(1L));
+
+        userExistence.invalidate(1L);
+
+        assertFalse(userExistence.exists(1L));
+        verify(userStorage, times(2)).existsById(1L);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", UserExistence.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
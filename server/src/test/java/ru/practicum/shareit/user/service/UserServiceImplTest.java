@@ -5,12 +5,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dal.ItemSearchIndex;
+import ru.practicum.shareit.item.dal.ItemStorage;
+import ru.practicum.shareit.item.dal.ItemSuggestIndex;
+import ru.practicum.shareit.item.service.ItemVersions;
+import ru.practicum.shareit.request.dal.RequestStorage;
 import ru.practicum.shareit.user.dal.UserStorage;
 import ru.practicum.shareit.user.dto.RequestUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +30,27 @@ class UserServiceImplTest {
     @Mock
     private UserStorage userStorage;
 
+    @Mock
+    private UserExistence userExistence;
+
+    @Mock
+    private ItemStorage itemStorage;
+
+    @Mock
+    private RequestStorage requestStorage;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ItemVersions itemVersions;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -41,6 +69,7 @@ class UserServiceImplTest {
         assertEquals(savedUser.getEmail(), result.getEmail());
 
         verify(userStorage, times(1)).save(any(User.class));
+        verify(userExistence).invalidate(1L);
     }
 
     @Test
@@ -62,6 +91,8 @@ class UserServiceImplTest {
 
         verify(userStorage, times(1)).findById(userId);
         verify(userStorage, times(1)).save(any(User.class));
+        verify(userStorage).incrementVersion(userId);
+        verify(requestStorage).incrementVersionsByRequesterId(userId);
     }
 
     @Test
@@ -85,12 +116,22 @@ class UserServiceImplTest {
         User existingUser = new User(userId, "testName", "test@example.com");
 
         when(userStorage.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(itemStorage.findIdsDeletedWithUser(userId)).thenReturn(List.of(3L));
+        when(itemStorage.findIdsShowingUser(userId)).thenReturn(List.of(5L));
+        when(itemStorage.findRequestIdsByOwnerId(userId)).thenReturn(List.of(7L));
         doNothing().when(userStorage).deleteById(userId);
 
         userService.deleteUser(userId);
 
         verify(userStorage, times(1)).findById(userId);
         verify(userStorage, times(1)).deleteById(userId);
+        verify(userExistence).invalidate(userId);
+        verify(itemVersions).increment(List.of(5L));
+        verify(itemVersions).invalidate(List.of(3L));
+        verify(requestStorage).incrementVersions(List.of(7L));
+        verify(itemSearchIndex).remove(3L);
+        verify(itemSuggestIndex).remove(3L);
+        verify(bookingIntervalIndex).remove(3L);
     }
 
     @Test